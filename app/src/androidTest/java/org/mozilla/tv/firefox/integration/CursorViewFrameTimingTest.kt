@@ -0,0 +1,144 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.integration
+
+import android.graphics.PointF
+import android.os.Build
+import android.os.Handler
+import android.os.HandlerThread
+import android.os.SystemClock
+import android.util.Log
+import android.view.Choreographer
+import android.view.FrameMetrics
+import android.view.KeyEvent
+import android.view.View
+import android.view.ViewGroup
+import android.view.Window
+import androidx.annotation.RequiresApi
+import androidx.test.filters.SdkSuppress
+import androidx.test.platform.app.InstrumentationRegistry
+import io.reactivex.Observable
+import io.reactivex.disposables.Disposable
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.mozilla.tv.firefox.ScreenControllerStateMachine.ActiveScreen
+import org.mozilla.tv.firefox.ext.serviceLocator
+import org.mozilla.tv.firefox.helpers.MainActivityTestRule
+import org.mozilla.tv.firefox.webrender.cursor.CursorModel
+import org.mozilla.tv.firefox.webrender.cursor.CursorView
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val LOGTAG = "CursorViewFrameTiming"
+
+private const val FRAME_COUNT = 120
+private const val TIMEOUT_SECONDS = 10L
+
+// Half a 60 FPS frame: the cursor should leave most of each frame to the page.
+private const val MAX_LAYOUT_AND_DRAW_MS_PER_FRAME = 8.0
+
+/**
+ * Measures the main thread time spent laying out and drawing each frame while the cursor moves, as
+ * it does in the app: a [CursorView] driven by a [CursorModel] while direction keys are held.
+ */
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.N) // For FrameMetrics.
+class CursorViewFrameTimingTest {
+
+    @get:Rule val activityTestRule = MainActivityTestRule()
+
+    /**
+     * The times with and without the cursor's hardware layer are logged, to compare them across
+     * devices and changes: moving a view only sets its render node properties either way, so the
+     * main thread times are too close to compare reliably on shared test devices.
+     */
+    @Test
+    fun movingCursorFramesLayOutAndDrawWithinHalfAFrame() {
+        val withLayerMs = measureMedianLayoutAndDrawMsPerFrame(View.LAYER_TYPE_HARDWARE)
+        val withoutLayerMs = measureMedianLayoutAndDrawMsPerFrame(View.LAYER_TYPE_NONE)
+        Log.i(LOGTAG, "Median layout and draw ms per cursor frame: hardware layer $withLayerMs, no layer $withoutLayerMs")
+
+        assertTrue("$withLayerMs ms per frame", withLayerMs < MAX_LAYOUT_AND_DRAW_MS_PER_FRAME)
+    }
+
+    @RequiresApi(Build.VERSION_CODES.N)
+    private fun measureMedianLayoutAndDrawMsPerFrame(layerType: Int): Double {
+        val instrumentation = InstrumentationRegistry.getInstrumentation()
+        val activity = activityTestRule.activity
+        val window = activity.window
+
+        val frameMs = ArrayList<Double>(FRAME_COUNT)
+        val framesMeasured = CountDownLatch(FRAME_COUNT)
+        val metricsThread = HandlerThread(LOGTAG).apply { start() }
+        val metricsListener = Window.OnFrameMetricsAvailableListener { _, frameMetrics, _ ->
+            synchronized(frameMs) {
+                if (frameMs.size < FRAME_COUNT) frameMs.add(frameMetrics.getLayoutAndDrawMs())
+            }
+            framesMeasured.countDown()
+        }
+
+        lateinit var cursorModel: CursorModel
+        lateinit var cursorView: CursorView
+        lateinit var cursorSetup: Disposable
+        var startX = 0f
+        var endX = 0f
+        instrumentation.runOnMainSync {
+            val decorView = window.decorView as ViewGroup
+            cursorModel = CursorModel(Observable.just(ActiveScreen.WEB_RENDER),
+                    activity.serviceLocator.frameworkRepo, activity.serviceLocator.sessionRepo).apply {
+                screenBounds = PointF(decorView.width.toFloat(), decorView.height.toFloat())
+                webViewCouldScrollInDirectionProvider = { false }
+            }
+            cursorView = CursorView(activity).apply { setLayerType(layerType, null) }
+            decorView.addView(cursorView, ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT)
+            cursorSetup = cursorView.setup(cursorModel)
+        }
+        instrumentation.waitForIdleSync()
+
+        instrumentation.runOnMainSync {
+            startX = cursorView.x
+            window.addOnFrameMetricsAvailableListener(metricsListener, Handler(metricsThread.looper))
+
+            // Hold right, then left, so the cursor moves for every frame rather than stopping at the edge.
+            cursorModel.pressDirectionKey(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT)
+            var frame = 0
+            Choreographer.getInstance().postFrameCallback(object : Choreographer.FrameCallback {
+                override fun doFrame(frameTimeNanos: Long) {
+                    if (++frame == FRAME_COUNT / 2) {
+                        cursorModel.pressDirectionKey(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_RIGHT)
+                        cursorModel.pressDirectionKey(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_LEFT)
+                    }
+                    if (frame < FRAME_COUNT) Choreographer.getInstance().postFrameCallback(this)
+                }
+            })
+        }
+
+        val isComplete = framesMeasured.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        instrumentation.runOnMainSync {
+            cursorModel.pressDirectionKey(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_LEFT)
+            endX = cursorView.x
+            window.removeOnFrameMetricsAvailableListener(metricsListener)
+            cursorSetup.dispose()
+            (window.decorView as ViewGroup).removeView(cursorView)
+        }
+        metricsThread.quitSafely()
+        assertTrue("Only ${frameMs.size} frames were drawn", isComplete)
+        assertTrue("The cursor didn't move from $startX", endX != startX)
+
+        return synchronized(frameMs) { frameMs.sorted()[frameMs.size / 2] }
+    }
+}
+
+private fun CursorModel.pressDirectionKey(action: Int, keyCode: Int) {
+    val now = SystemClock.uptimeMillis()
+    val event = KeyEvent(now, now, action, keyCode, 0)
+    assertTrue(handleKeyEvent(event).wasKeyEventConsumed)
+}
+
+@RequiresApi(Build.VERSION_CODES.N)
+private fun FrameMetrics.getLayoutAndDrawMs(): Double {
+    val nanos = getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION) + getMetric(FrameMetrics.DRAW_DURATION)
+    return nanos / TimeUnit.MILLISECONDS.toNanos(1).toDouble()
+}
@@ -16,7 +16,7 @@ import org.mozilla.tv.firefox.helpers.assertEqualsWithDelta
 import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileScreenshotStore
 import java.util.UUID
 
-private const val DIMEN = 140 // should be divisible by 4.
+private const val DIMEN = 140
 
 class PinnedTileScreenshotStoreIntegrationTest {
 
@@ -42,14 +42,12 @@ class PinnedTileScreenshotStoreIntegrationTest {
         val uuid = UUID.randomUUID()
         PinnedTileScreenshotStore.saveAsync(andyContext, uuid, originalBitmap).join()
 
-        // Reading scales the bitmap by 4 so they don't take up as much space in memory.
-        val expectedDimen = DIMEN / 4
-        val expectedBitmap = Bitmap.createScaledBitmap(originalBitmap, expectedDimen, expectedDimen, false)
+        // The bitmap is smaller than a tile, so neither the thumbnail nor the read scale it down.
         val actualBitmap = PinnedTileScreenshotStore.read(andyContext, uuid)
 
         // Delta chosen by testing against our compression quality.
         assertNotNull(actualBitmap)
-        assertEqualsWithDelta(expectedBitmap, actualBitmap!!, 7f)
+        assertEqualsWithDelta(originalBitmap, actualBitmap!!, 7f)
     }
 }
 
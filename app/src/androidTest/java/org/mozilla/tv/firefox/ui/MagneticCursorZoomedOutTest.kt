@@ -0,0 +1,100 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.ui
+
+import android.graphics.PointF
+import android.os.SystemClock
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.mozilla.tv.firefox.ext.addJavascriptInterface
+import org.mozilla.tv.firefox.ext.serviceLocator
+import org.mozilla.tv.firefox.ext.toUri
+import org.mozilla.tv.firefox.helpers.AndroidAssetDispatcher
+import org.mozilla.tv.firefox.helpers.MainActivityTestRule
+import org.mozilla.tv.firefox.ui.robots.navigationOverlay
+import org.mozilla.tv.firefox.webrender.WebRenderFragment
+import org.mozilla.tv.firefox.webrender.cursor.HIT_TARGETS_JS_INTERFACE_IDENTIFIER
+import org.mozilla.tv.firefox.webrender.cursor.HitTargets
+
+// The width of the page's viewport, and the rect of its link, in CSS px: see the page.
+private const val PAGE_WIDTH_CSS_PX = 2000f
+private const val TARGET_CENTER_X_CSS_PX = 1650f
+private const val TARGET_CENTER_Y_CSS_PX = 150f
+
+private const val TIMEOUT_MILLIS = 5000L
+private const val POLL_INTERVAL_MILLIS = 100L
+
+/**
+ * Ensures the magnetic cursor finds clickable elements where they are on screen on pages zoomed out
+ * to fit the screen, in desktop mode: their px on screen aren't the page's CSS px times
+ * devicePixelRatio.
+ */
+class MagneticCursorZoomedOutTest {
+
+    @get:Rule val activityTestRule = MainActivityTestRule()
+    private lateinit var mockWebServer: MockWebServer
+    private val hitTargets = HitTargets()
+
+    @Before
+    fun setUp() {
+        mockWebServer = MockWebServer().apply {
+            setDispatcher(AndroidAssetDispatcher())
+            start()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        activityTestRule.runOnUiThread { activityTestRule.activity.serviceLocator.cursorModel.hitTargets = null }
+        mockWebServer.shutdown()
+    }
+
+    /* ktlint-disable no-blank-line-before-rbrace */ // This imposes unreadable grouping.
+    @Test
+    fun zoomedOutPageTargetIsFoundWhereItIsOnScreen() {
+        val url = mockWebServer.url("pages/hit_targets_zoomed_out_test.html").toString().toUri()!!
+        navigationOverlay { }.enterUrlAndEnterToBrowser(url) {
+            // As when the experiment is on: the interface is added to the page when it next loads.
+            activityTestRule.runOnUiThread {
+                getWebRenderFragment().engineView!!.addJavascriptInterface(hitTargets, HIT_TARGETS_JS_INTERFACE_IDENTIFIER)
+                activityTestRule.activity.serviceLocator.cursorModel.hitTargets = hitTargets
+            }
+
+        // Desktop mode reloads the page in a wide viewport, zoomed out to fit the screen.
+        }.openOverlay { }.turnDesktopModeOn {
+            val expectedTargetCenter = getExpectedTargetCenterOnScreen()
+            assertTrue("Target not found at $expectedTargetCenter", waitForTargetAt(expectedTargetCenter))
+        }
+    }
+
+    private fun getWebRenderFragment() = activityTestRule.activity.supportFragmentManager
+            .findFragmentByTag(WebRenderFragment.FRAGMENT_TAG) as WebRenderFragment
+
+    /** In the cursor's coordinates, which are relative to the fragment. */
+    private fun getExpectedTargetCenterOnScreen(): PointF {
+        val fragmentView = getWebRenderFragment().view!!
+        val engineView = getWebRenderFragment().engineView!!.asView()
+        val fragmentLocation = IntArray(2).apply { fragmentView.getLocationInWindow(this) }
+        val engineViewLocation = IntArray(2).apply { engineView.getLocationInWindow(this) }
+
+        val screenPxPerCssPx = engineView.width / PAGE_WIDTH_CSS_PX
+        return PointF(engineViewLocation[0] - fragmentLocation[0] + TARGET_CENTER_X_CSS_PX * screenPxPerCssPx,
+                engineViewLocation[1] - fragmentLocation[1] + TARGET_CENTER_Y_CSS_PX * screenPxPerCssPx)
+    }
+
+    private fun waitForTargetAt(point: PointF): Boolean {
+        val nearestPoint = PointF()
+        val timeoutAtMillis = SystemClock.uptimeMillis() + TIMEOUT_MILLIS
+        while (SystemClock.uptimeMillis() < timeoutAtMillis) {
+            if (hitTargets.findNearestPoint(point.x, point.y, 0f, nearestPoint)) return true
+            SystemClock.sleep(POLL_INTERVAL_MILLIS)
+        }
+        return false
+    }
+}
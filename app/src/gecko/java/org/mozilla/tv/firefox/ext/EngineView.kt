@@ -66,6 +66,10 @@ fun EngineView.observePlaybackState() {
     evalJS(JS_OBSERVE_PLAYBACK_STATE)
 }
 
+fun EngineView.observeHitTargets() {
+    evalJS(Js.JS_OBSERVE_HIT_TARGETS)
+}
+
 fun EngineView.observeScrollPosition() {
     // No action necessary.
 }
@@ -170,6 +174,12 @@ fun EngineView.scrollByClamped(vx: Int, vy: Int) {
     }
 }
 
+/**
+ * GeckoView can't fling programmatically: returns false so the caller scrolls the page itself.
+ */
+@Suppress("UNUSED_PARAMETER")
+fun EngineView.flingScroll(vx: Int, vy: Int): Boolean = false
+
 /** TODO: Replace stub when functionality is available in GV (See #1837) */
 fun EngineView.handleYoutubeBack(@Suppress("UNUSED_PARAMETER") indexToGoBackTo: Int) { }
 object WebHistory {
@@ -21,6 +21,7 @@ import mozilla.components.support.ktx.android.content.runOnlyInMainProcess
 import mozilla.components.support.ktx.android.os.resetAfter
 import mozilla.components.support.rusthttp.RustHttpConfig
 import org.mozilla.tv.firefox.GleanMetrics.LegacyIds
+import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileBitmapCache
 import org.mozilla.tv.firefox.components.locale.LocaleAwareApplication
 import org.mozilla.tv.firefox.ext.webRenderComponents
 import org.mozilla.tv.firefox.telemetry.SentryIntegration
@@ -29,6 +30,7 @@ import org.mozilla.tv.firefox.telemetry.TelemetryIntegration
 import org.mozilla.tv.firefox.utils.BuildConstants
 import org.mozilla.tv.firefox.utils.OkHttpWrapper
 import org.mozilla.tv.firefox.utils.ServiceLocator
+import org.mozilla.tv.firefox.utils.publicsuffix.PublicSuffix
 import org.mozilla.tv.firefox.webrender.WebRenderComponents
 import java.util.UUID
 
@@ -70,6 +72,9 @@ open class FirefoxApplication : LocaleAwareApplication() {
             // Enable crash reporting. Don't add anything above here because if it crashes, we won't know.
             SentryIntegration.init(this, serviceLocator.settingsRepo)
 
+            // Used by custom home tiles: start loading it early so tile titles can be formatted without blocking.
+            PublicSuffix.init(this)
+
             initRustDependencies()
             TelemetryIntegration.INSTANCE.init(this)
             initGlean()
@@ -151,6 +156,7 @@ open class FirefoxApplication : LocaleAwareApplication() {
     override fun onLowMemory() {
         super.onLowMemory()
         OkHttpWrapper.onLowMemory()
+        PinnedTileBitmapCache.onLowMemory()
         serviceLocator.sessionManager.onLowMemory()
         // If you need to dump more memory, you may be able to clear the Picasso cache.
     }
@@ -41,7 +41,6 @@ import org.mozilla.tv.firefox.utils.OnUrlEnteredListener
 import org.mozilla.tv.firefox.utils.Settings
 import org.mozilla.tv.firefox.utils.URLs
 import org.mozilla.tv.firefox.utils.ViewUtils
-import org.mozilla.tv.firefox.utils.publicsuffix.PublicSuffix
 import org.mozilla.tv.firefox.webrender.VideoVoiceCommandMediaSession
 import org.mozilla.tv.firefox.widget.InlineAutocompleteEditText
 
@@ -66,7 +65,6 @@ class MainActivity : LocaleAwareAppCompatActivity(), OnUrlEnteredListener, Media
         // goes through onCreate.
         super.onCreate(savedInstanceState)
 
-        PublicSuffix.init(this) // Used by Pocket Video feed & custom home tiles.
         initMediaSession()
 
         // The launch intent is needed to create the engines in the engine cache.
@@ -75,6 +73,9 @@ class MainActivity : LocaleAwareAppCompatActivity(), OnUrlEnteredListener, Media
 
         lifecycle.addObserver(serviceLocator.engineViewCache)
 
+        // Start recording visits and building the URL bar's autocomplete indices before it's opened.
+        serviceLocator.autocompleteEngine
+
         window.decorView.systemUiVisibility = View.SYSTEM_UI_FLAG_LAYOUT_STABLE or View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN
 
         setContentView(R.layout.activity_main)
@@ -46,7 +46,8 @@ class ViewModelFactory(
 
             SettingsViewModel::class.java -> SettingsViewModel(
                 serviceLocator.settingsRepo,
-                serviceLocator.sessionRepo
+                serviceLocator.sessionRepo,
+                serviceLocator.frecencyHistoryStore
             ) as T
 
             NavigationOverlayViewModel::class.java -> NavigationOverlayViewModel(
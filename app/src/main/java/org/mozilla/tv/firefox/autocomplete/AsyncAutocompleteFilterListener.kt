@@ -0,0 +1,62 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import androidx.annotation.UiThread
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import org.mozilla.tv.firefox.widget.InlineAutocompleteEditText
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * Long enough to skip lookups for text that's replaced in bursts, e.g. by a soft keyboard, but
+ * short enough that completions keep up with typing on the remote.
+ */
+private const val DEBOUNCE_MILLIS = 30L
+
+/**
+ * Looks up URL bar completions off the UI thread so slow lookups never stall key handling.
+ *
+ * Lookups are debounced, and each filter request cancels the one before it: a superseded lookup
+ * never delivers its result. Results that are delivered are still checked against the current text
+ * by [InlineAutocompleteEditText.onAutocomplete], which drops stale ones.
+ *
+ * @param parentJob cancels any pending lookup when the UI is torn down.
+ * @param uiContext where lookups are debounced and their results delivered.
+ * @param lookupContext where the lookups run.
+ */
+class AsyncAutocompleteFilterListener(
+    private val autocompleteEngine: AutocompleteEngine,
+    parentJob: Job,
+    uiContext: CoroutineContext = Dispatchers.Main,
+    private val lookupContext: CoroutineContext = Dispatchers.Default,
+    private val debounceMillis: Long = DEBOUNCE_MILLIS
+) : InlineAutocompleteEditText.OnFilterListener, CoroutineScope {
+
+    override val coroutineContext: CoroutineContext = Job(parentJob) + uiContext
+
+    private var pendingLookup: Job? = null
+
+    @UiThread
+    override fun onFilter(searchText: String, view: InlineAutocompleteEditText?) {
+        pendingLookup?.cancel()
+        pendingLookup = null
+
+        // A null view means the text shouldn't be autocompleted, e.g. the user is backspacing.
+        if (view == null) return
+
+        pendingLookup = launch {
+            delay(debounceMillis)
+            val result = withContext(lookupContext) { autocompleteEngine.getAutocompleteSuggestion(searchText) }
+            if (result != null) {
+                view.onAutocomplete(searchText, result)
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import android.content.Context
+import io.reactivex.Observable
+import io.reactivex.Single
+import io.reactivex.disposables.CompositeDisposable
+import io.reactivex.schedulers.Schedulers
+import mozilla.components.browser.domains.Domains
+import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileRepo
+import org.mozilla.tv.firefox.widget.InlineAutocompleteEditText.AutocompleteResult
+
+/**
+ * Provides URL bar autocompletions from pinned tiles, visited sites (ranked by
+ * [FrecencyHistoryStore]) and the domains shipped with the app, in that priority order.
+ *
+ * The index for each source is built off the UI thread: the shipped domains once per process and
+ * the other sources whenever they change, which is cheap because they're small. Until an index is
+ * built, its source provides no completions.
+ *
+ * Lookups narrow incrementally: if the query extends the previous query, e.g. the user typed one
+ * more character, the lookup continues from where the previous one stopped rather than starting
+ * over. Lookups are cheap but may be called from any thread, e.g. by [AsyncAutocompleteFilterListener].
+ */
+class AutocompleteEngine(
+    shippedDomains: Single<List<String>>,
+    pinnedUrls: Observable<out Collection<String>>,
+    historyHosts: Observable<out List<String>>
+) {
+
+    @Volatile private var indices = AutocompleteSource.values().map { AutocompleteIndex.build(it, emptyList()) }
+
+    private val disposables = CompositeDisposable()
+
+    // State from the previous lookup, for incremental narrowing.
+    private var lastIndices: List<AutocompleteIndex>? = null
+    private var lastQuery = ""
+    private val lastNodes = IntArray(AutocompleteSource.values().size)
+
+    init {
+        disposables.add(shippedDomains
+                .subscribeOn(Schedulers.io())
+                .map { AutocompleteIndex.build(AutocompleteSource.SHIPPED_DOMAINS, it) }
+                .subscribe(::setIndex))
+
+        disposables.add(pinnedUrls
+                .observeOn(Schedulers.io())
+                .map { AutocompleteIndex.build(AutocompleteSource.PINNED_TILES, it) }
+                .subscribe(::setIndex))
+
+        disposables.add(historyHosts
+                .observeOn(Schedulers.io())
+                .map { AutocompleteIndex.build(AutocompleteSource.HISTORY, it) }
+                .subscribe(::setIndex))
+    }
+
+    /** Returns the best completion for the given URL bar text, or null if there is none. */
+    @Synchronized // Guards the incremental narrowing state.
+    fun getAutocompleteSuggestion(query: String): AutocompleteResult? {
+        val indices = indices
+        val canNarrow = indices === lastIndices &&
+                query.length >= lastQuery.length &&
+                query.regionMatches(0, lastQuery, 0, lastQuery.length, ignoreCase = true)
+
+        var result: AutocompleteResult? = null
+        indices.forEachIndexed { i, index ->
+            val node = if (canNarrow) {
+                index.descend(lastNodes[i], query, lastQuery.length, query.length)
+            } else {
+                index.descend(AutocompleteIndex.ROOT, query, 0, query.length)
+            }
+            lastNodes[i] = node
+
+            if (result == null && node != AutocompleteIndex.NOT_FOUND) {
+                // Keep the user's casing for the text they typed.
+                val completion = index.completion(node)
+                result = AutocompleteResult(query + completion.substring(query.length),
+                        index.source.telemetryName, index.size)
+            }
+        }
+
+        lastIndices = indices
+        lastQuery = query
+        return result
+    }
+
+    @Synchronized // Serializes updates to [indices]: indices are built before this is called.
+    private fun setIndex(index: AutocompleteIndex) {
+        indices = indices.toMutableList().apply { set(index.source.ordinal, index) }
+    }
+
+    companion object {
+        fun create(
+            context: Context,
+            pinnedTileRepo: PinnedTileRepo,
+            historyStore: FrecencyHistoryStore
+        ): AutocompleteEngine {
+            val appContext = context.applicationContext
+            return AutocompleteEngine(
+                    shippedDomains = Single.fromCallable { Domains.load(appContext) },
+                    // Copy the URLs: the repo mutates its map in place.
+                    pinnedUrls = pinnedTileRepo.pinnedTiles.map { it.keys.toList() },
+                    historyHosts = historyStore.rankedHosts
+            )
+        }
+    }
+}
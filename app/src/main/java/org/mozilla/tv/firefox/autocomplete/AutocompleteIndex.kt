@@ -0,0 +1,147 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import java.util.Locale
+import java.util.TreeMap
+
+private const val WWW_PREFIX = "www."
+
+/**
+ * An immutable prefix index over the domains from a single [AutocompleteSource]. Each domain
+ * "mozilla.org" can be completed both as "www.mozilla.org" and as "mozilla.org", in that order, and
+ * earlier domains take priority over later ones, like in the shipped domains provider this replaces.
+ *
+ * The index is a trie flattened into arrays: the children of each node are contiguous and sorted by
+ * character, and each node stores the best completion below it. A lookup is one binary search per
+ * query character, and a lookup for a longer query can continue from the node of a shorter one
+ * (see [AutocompleteEngine]). Indices are immutable so they're safe to share across threads.
+ */
+class AutocompleteIndex private constructor(
+    val source: AutocompleteSource,
+    /** The number of domains in this index. */
+    val size: Int,
+    /** The children of node i are the nodes in [firstChild[i], firstChild[i + 1]). */
+    private val firstChild: IntArray,
+    /** The character on the edge leading into each node. */
+    private val chars: CharArray,
+    /** The index into [completions] of the best completion below each node. */
+    private val best: IntArray,
+    private val completions: Array<String>
+) {
+
+    /**
+     * Returns the node reached by following the characters of [query] in [start, end), compared
+     * case-insensitively, from the given node. Returns [NOT_FOUND] if no completion has that prefix.
+     */
+    fun descend(node: Int, query: CharSequence, start: Int, end: Int): Int {
+        if (size == 0) {
+            return NOT_FOUND
+        }
+
+        var current = node
+        for (i in start until end) {
+            if (current == NOT_FOUND) {
+                return NOT_FOUND
+            }
+            current = child(current, Character.toLowerCase(query[i]))
+        }
+        return current
+    }
+
+    /** Returns the best completion for a query that led to the given node, e.g. "www.mozilla.org". */
+    fun completion(node: Int): String = completions[best[node]]
+
+    private fun child(node: Int, c: Char): Int {
+        var low = firstChild[node]
+        var high = firstChild[node + 1] - 1
+        while (low <= high) {
+            val mid = (low + high) ushr 1
+            val midChar = chars[mid]
+            when {
+                midChar < c -> low = mid + 1
+                midChar > c -> high = mid - 1
+                else -> return mid
+            }
+        }
+        return NOT_FOUND
+    }
+
+    private class Node {
+        val children = TreeMap<Char, Node>()
+        var best = Int.MAX_VALUE
+    }
+
+    companion object {
+        const val ROOT = 0
+        const val NOT_FOUND = -1
+
+        /**
+         * Builds an index over the given domains or URLs, in priority order. Each is reduced to its
+         * lowercase host without "www.": URLs without a host are ignored, as are duplicates.
+         */
+        fun build(source: AutocompleteSource, urls: Iterable<String>): AutocompleteIndex {
+            val domains = LinkedHashSet<String>()
+            urls.mapNotNullTo(domains) { toDomain(it) }
+
+            val completions = ArrayList<String>(domains.size * 2)
+            val root = Node()
+            domains.forEach { domain ->
+                // Offering "www." first matches what users type and what the shipped provider did.
+                listOf(WWW_PREFIX + domain, domain).forEach { completion ->
+                    val rank = completions.size
+                    completions.add(completion)
+
+                    var node = root
+                    node.best = minOf(node.best, rank)
+                    completion.forEach { char ->
+                        node = node.children.getOrPut(char) { Node() }
+                        node.best = minOf(node.best, rank)
+                    }
+                }
+            }
+
+            // Flatten breadth-first so the children of each node are contiguous.
+            val nodes = mutableListOf(root)
+            val chars = mutableListOf('\u0000')
+            val firstChild = mutableListOf<Int>()
+            var i = 0
+            while (i < nodes.size) {
+                firstChild.add(nodes.size)
+                nodes[i].children.forEach { (char, child) ->
+                    chars.add(char)
+                    nodes.add(child)
+                }
+                i += 1
+            }
+            firstChild.add(nodes.size)
+
+            return AutocompleteIndex(
+                source = source,
+                size = domains.size,
+                firstChild = firstChild.toIntArray(),
+                chars = chars.toCharArray(),
+                best = nodes.map { if (it.best == Int.MAX_VALUE) 0 else it.best }.toIntArray(),
+                completions = completions.toTypedArray()
+            )
+        }
+
+        /** Returns the lowercase host of the given domain or URL without "www.", or null if it has none. */
+        internal fun toDomain(url: String): String? {
+            val schemeEnd = url.indexOf("://")
+            val hostStart = if (schemeEnd < 0) 0 else schemeEnd + 3
+            var hostEnd = hostStart
+            while (hostEnd < url.length && url[hostEnd] !in "/:?#") {
+                hostEnd += 1
+            }
+
+            var domain = url.substring(hostStart, hostEnd).trim().toLowerCase(Locale.US)
+            if (domain.startsWith(WWW_PREFIX)) {
+                domain = domain.substring(WWW_PREFIX.length)
+            }
+            return if (domain.isEmpty() || ' ' in domain) null else domain
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+/**
+ * The sources of URL bar autocompletions, in priority order.
+ *
+ * @property telemetryName the autocomplete source sent in telemetry (see docs/telemetry.md).
+ */
+enum class AutocompleteSource(val telemetryName: String) {
+    PINNED_TILES("pinned"),
+    HISTORY("history"),
+    SHIPPED_DOMAINS("default")
+}
@@ -0,0 +1,202 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import android.content.Context
+import android.util.Log
+import androidx.annotation.VisibleForTesting
+import io.reactivex.Observable
+import io.reactivex.Single
+import io.reactivex.disposables.CompositeDisposable
+import io.reactivex.schedulers.Schedulers
+import io.reactivex.subjects.BehaviorSubject
+import org.mozilla.tv.firefox.session.SessionRepo
+import org.mozilla.tv.firefox.utils.UrlUtils
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+private const val LOGTAG = "FrecencyHistoryStore"
+
+private const val FILE_NAME = "frecency_history"
+private const val MAGIC = 0x46524331 // "FRC1"
+
+@VisibleForTesting internal const val MAX_HOSTS = 200
+@VisibleForTesting internal val HALF_LIFE_MILLIS = TimeUnit.DAYS.toMillis(14)
+
+/** Hosts whose score decays below this, i.e. one visit about three months ago, are forgotten. */
+private const val MIN_SCORE = 0.01
+
+/** Batches writes for bursts of visits, e.g. redirects. */
+private const val SAVE_DEBOUNCE_SECONDS = 2L
+
+/**
+ * Keeps per-host frecency scores for visited pages and ranks them for URL bar autocomplete.
+ *
+ * Each visit adds one point to its host's score, and scores decay exponentially with a half-life of
+ * [HALF_LIFE_MILLIS], so hosts visited often and recently rank highest. A score is stored with the
+ * time of its last visit and decayed when it's read, so decay needs no periodic rewrite. Hosts are
+ * pruned whenever the store changes: those whose score has decayed below [MIN_SCORE] and, beyond
+ * [MAX_HOSTS], those with the lowest scores.
+ *
+ * The scores are persisted in a small binary file, written after visits are recorded:
+ * - int: [MAGIC]
+ * - int: the host count
+ * - for each host: a modified UTF-8 host, a double score and a long time of the last visit in millis
+ *
+ * All loading, recording and saving happens off the UI thread. The history must be cleared with
+ * the rest of the browsing data: see [clear], which deletes the file right away.
+ */
+class FrecencyHistoryStore @VisibleForTesting constructor(
+    private val file: File,
+    visitedUrls: Observable<String>,
+    private val now: () -> Long = System::currentTimeMillis
+) {
+
+    private class Entry(val score: Double, val lastVisitMillis: Long)
+
+    /** The entries recorded since the history was last cleared, i.e. in [generation]. */
+    private class History(val generation: Int, val entries: Map<String, Entry>)
+
+    private val _rankedHosts = BehaviorSubject.createDefault(emptyList<String>())
+    /** Visited hosts without "www.", most frecent first. */
+    val rankedHosts: Observable<List<String>> = _rankedHosts.hide()
+
+    private val tempFile = File(file.path + ".tmp")
+    // Guards the file and generations: history from before a clear is never loaded or saved after it.
+    private val fileLock = Any()
+    // Incremented by each clear. A BehaviorSubject so clears before the history loads aren't lost.
+    private val generations = BehaviorSubject.createDefault(0)
+    private val disposables = CompositeDisposable()
+
+    init {
+        val histories = Single.fromCallable { synchronized(fileLock) { History(generations.value!!, prune(load())) } }
+                .subscribeOn(Schedulers.io())
+                .flatMapObservable { loaded ->
+                    val updates = Observable.merge<(History) -> History>(
+                            visitedUrls
+                                    .filter { UrlUtils.isHttpOrHttps(it) }
+                                    .distinctUntilChanged()
+                                    .map { url -> { history: History -> History(history.generation, record(history.entries, url)) } },
+                            generations
+                                    .filter { it != loaded.generation }
+                                    .map { generation -> { _: History -> History(generation, emptyMap()) } }
+                    )
+                    updates.observeOn(Schedulers.io()).scan(loaded) { history, update -> update(history) }
+                }
+                .publish()
+
+        disposables.add(histories.subscribe { _rankedHosts.onNext(rank(it.entries)) })
+        disposables.add(histories
+                .skip(1) // The loaded entries are already saved.
+                .debounce(SAVE_DEBOUNCE_SECONDS, TimeUnit.SECONDS, Schedulers.io())
+                .subscribe(::save))
+        disposables.add(histories.connect())
+    }
+
+    /**
+     * Forgets all visits, e.g. when the user clears their browsing data. The file is deleted before
+     * this returns, even if the history hasn't loaded yet.
+     */
+    fun clear() {
+        synchronized(fileLock) {
+            generations.onNext(generations.value!! + 1)
+            file.delete()
+            tempFile.delete()
+        }
+    }
+
+    private fun record(entries: Map<String, Entry>, url: String): Map<String, Entry> {
+        val host = AutocompleteIndex.toDomain(url) ?: return entries
+        val visitMillis = now()
+        val previousScore = entries[host]?.let { decayedScore(it, visitMillis) } ?: 0.0
+        return prune(entries + (host to Entry(previousScore + 1, visitMillis)))
+    }
+
+    private fun prune(entries: Map<String, Entry>): Map<String, Entry> {
+        val nowMillis = now()
+        return entries.entries
+                .filter { decayedScore(it.value, nowMillis) >= MIN_SCORE }
+                .sortedByDescending { decayedScore(it.value, nowMillis) }
+                .take(MAX_HOSTS)
+                .associate { it.key to it.value }
+    }
+
+    private fun rank(entries: Map<String, Entry>): List<String> {
+        val nowMillis = now()
+        return entries.entries
+                .sortedByDescending { decayedScore(it.value, nowMillis) }
+                .map { it.key }
+    }
+
+    private fun decayedScore(entry: Entry, nowMillis: Long): Double {
+        val elapsedMillis = (nowMillis - entry.lastVisitMillis).coerceAtLeast(0)
+        return entry.score * Math.pow(0.5, elapsedMillis.toDouble() / HALF_LIFE_MILLIS)
+    }
+
+    private fun load(): Map<String, Entry> {
+        if (!file.exists()) {
+            return emptyMap()
+        }
+
+        return try {
+            DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != MAGIC) {
+                    throw IOException("Unexpected history file format")
+                }
+                val count = input.readInt()
+                val entries = LinkedHashMap<String, Entry>(count)
+                repeat(count) {
+                    val host = input.readUTF()
+                    entries[host] = Entry(input.readDouble(), input.readLong())
+                }
+                entries
+            }
+        } catch (e: IOException) {
+            // History is only used for autocomplete so it's not worth recovering: start over.
+            Log.w(LOGTAG, "Unable to read history", e)
+            emptyMap()
+        }
+    }
+
+    private fun save(history: History) {
+        synchronized(fileLock) {
+            // The history was cleared since: this would write the visits back.
+            if (history.generation == generations.value) write(history.entries)
+        }
+    }
+
+    private fun write(entries: Map<String, Entry>) {
+        // Write to a temporary file and rename it so a crash mid-write can't corrupt the history.
+        try {
+            DataOutputStream(tempFile.outputStream().buffered()).use { output ->
+                output.writeInt(MAGIC)
+                output.writeInt(entries.size)
+                entries.forEach { (host, entry) ->
+                    output.writeUTF(host)
+                    output.writeDouble(entry.score)
+                    output.writeLong(entry.lastVisitMillis)
+                }
+            }
+            if (!tempFile.renameTo(file)) {
+                throw IOException("Unable to rename $tempFile")
+            }
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to save history", e)
+            tempFile.delete()
+        }
+    }
+
+    companion object {
+        fun create(context: Context, sessionRepo: SessionRepo): FrecencyHistoryStore {
+            return FrecencyHistoryStore(
+                    file = File(context.filesDir, FILE_NAME),
+                    visitedUrls = sessionRepo.state.map { it.currentUrl }
+            )
+        }
+    }
+}
@@ -16,6 +16,12 @@ import org.mozilla.tv.firefox.ext.getDimenPixelSize
 
 const val MILLISECONDS_PER_INCH = 50f // For smooth scrolling speed
 
+/**
+ * The number of tiles visible in a channel: the first 4 tiles and part of the 5th fit on a 960dp
+ * wide screen.
+ */
+const val VISIBLE_TILES_PER_CHANNEL = 5
+
 /**
  * [ChannelLayoutManager] manages scrolling state of the channel RecyclerView while satisfying
  * SNAP_SCROLL behaviour
@@ -26,6 +32,12 @@ class ChannelLayoutManager(
 
     @Volatile private var isScrolling: Boolean = false
 
+    init {
+        // When the channel is nested in a scrolling RecyclerView, its visible tiles are prefetched,
+        // rather than only the first tile, before it's scrolled on screen.
+        initialPrefetchItemCount = VISIBLE_TILES_PER_CHANNEL
+    }
+
     /**
      * Android by default, when SNAP_TO_START, attempts to focus the leftmost partially visible
      * descendant (See [findFirstVisibleChildClosestToStart]). Due to carousel scroll, there is
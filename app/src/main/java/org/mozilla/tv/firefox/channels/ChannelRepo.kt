@@ -11,16 +11,17 @@ import androidx.annotation.VisibleForTesting
 import io.reactivex.Observable
 import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.rxkotlin.Observables
-import io.reactivex.schedulers.Schedulers
 import io.reactivex.subjects.BehaviorSubject
 import org.mozilla.tv.firefox.channels.content.ChannelContent
 import org.mozilla.tv.firefox.channels.content.getMusicChannels
 import org.mozilla.tv.firefox.channels.content.getNewsChannels
 import org.mozilla.tv.firefox.channels.content.getSportsChannels
+import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTile
 import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileImageUtilWrapper
 import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileRepo
 import org.mozilla.tv.firefox.telemetry.TelemetryIntegration
 import org.mozilla.tv.firefox.utils.FormattedDomainWrapper
+import org.mozilla.tv.firefox.utils.publicsuffix.PublicSuffix
 import java.util.Collections
 
 private const val PREF_CHANNEL_REPO = "ChannelRepo"
@@ -46,8 +47,8 @@ class ChannelRepo(
     private val _sharedPreferences: SharedPreferences =
         application.getSharedPreferences(PREF_CHANNEL_REPO, Context.MODE_PRIVATE)
 
-    fun getPinnedTiles(): Observable<List<ChannelTile>> =
-        pinnedTiles.filterNotBlacklisted(blacklistedPinnedIds)
+    /** Pinned tiles are updated as they change, see [IncrementalChannelTileMapper]. */
+    fun getPinnedTiles(): Observable<ChannelTileList> = pinnedTiles
 
     fun getNewsTiles(): Observable<List<ChannelTile>> =
         bundledNewsTiles.filterNotBlacklisted(blacklistedNewsIds)
@@ -117,13 +118,24 @@ class ChannelRepo(
         _sharedPreferences.edit().putStringSet(sharedPrefKey, blackList.toSet()).apply()
     }
 
-    private val pinnedTiles = pinnedTileRepo.pinnedTiles
-        // This takes place off of the main thread because PinnedTile.toChannelTile needs
-        // to perform file access, and blocks to do so
-        .observeOn(Schedulers.io())
-        .map { it.values.map { it.toChannelTile(imageUtilityWrapper, formattedDomainWrapper) } }
-        .observeOn(AndroidSchedulers.mainThread())
     private val blacklistedPinnedIds = BehaviorSubject.createDefault(loadBlackList(TileSource.BUNDLED))
+    private val pinnedTiles = PublicSuffix.whenReady(application)
+        // PinnedTile.toChannelTile formats domains, which only blocks while the public suffix
+        // list is loading. Once it's loaded, we can map tiles inline without a thread hop.
+        .andThen(Observable.defer {
+            // Only the tiles that changed are mapped again.
+            val mapper = IncrementalChannelTileMapper<PinnedTile> {
+                it.toChannelTile(imageUtilityWrapper, formattedDomainWrapper)
+            }
+            mapper.applyBlacklist(blacklistedPinnedIds.value!!)
+
+            // Both are emitted on the main thread, so the mapper sees every change in order.
+            Observable.merge(
+                pinnedTileRepo.pinnedTileChanges.map { mapper.applyChanges(it) },
+                blacklistedPinnedIds.skip(1).map { mapper.applyBlacklist(it) }
+            )
+        }.subscribeOn(AndroidSchedulers.mainThread()))
+        .observeOn(AndroidSchedulers.mainThread())
     private val bundledNewsTiles = Observable.just(ChannelContent.getNewsChannels())
         .replay(1)
         .autoConnect(0)
@@ -15,9 +15,10 @@ import androidx.recyclerview.widget.RecyclerView
 import com.squareup.picasso.RequestCreator
 import com.squareup.picasso.Transformation
 import org.mozilla.tv.firefox.R
+import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileScreenshotLoader
 import org.mozilla.tv.firefox.ext.getDimenPixelSize
 import org.mozilla.tv.firefox.utils.PicassoWrapper
-import java.io.File
+import java.util.UUID
 
 enum class TileSource { BUNDLED, CUSTOM, NEWS, SPORTS, MUSIC }
 
@@ -103,6 +104,8 @@ sealed class ImageSetStrategy {
 
     data class ById(val id: Int) : ImageSetStrategy() {
         override fun invoke(imageView: ImageView) {
+            PinnedTileScreenshotLoader.cancel(imageView)
+
             // Picasso doesn't support SVGs, so we need to do a little extra work to be
             // able to apply our transformation
             // See https://github.com/square/picasso/issues/1109
@@ -121,6 +124,7 @@ sealed class ImageSetStrategy {
     // Note that ByPath can be used with either local paths or URLs
     data class ByPath(val path: String, val placeholderId: Int? = null, val errorId: Int? = null) : ImageSetStrategy() {
         override fun invoke(imageView: ImageView) {
+            PinnedTileScreenshotLoader.cancel(imageView)
             PicassoWrapper.client
                 .load(path)
                 .applyTransformationIfNotNull(transformation)
@@ -133,22 +137,26 @@ sealed class ImageSetStrategy {
         }
     }
 
-    data class ByFile(val file: File, val backup: Drawable) : ImageSetStrategy() {
+    /**
+     * Loads a pinned tile screenshot through an in-memory cache, so binding the tile again doesn't
+     * decode it again: see [PinnedTileScreenshotLoader].
+     */
+    data class ByScreenshot(val uuid: UUID, val backup: Drawable) : ImageSetStrategy() {
         override fun invoke(imageView: ImageView) {
-            PicassoWrapper.client
-                .load(file)
-                .placeholder(backup)
-                .applyTransformationIfNotNull(transformation)
-                .into(imageView)
+            PicassoWrapper.client.cancelRequest(imageView)
+            PinnedTileScreenshotLoader.load(imageView, uuid, backup, transformation)
         }
     }
 }
 
 /**
  * Backing data for a channel as a whole
+ *
+ * @property tileChanges how [tileList] differs from the channel's previous tiles, if known.
  */
 data class ChannelDetails(
     val title: CharSequence,
     val subtitle: CharSequence? = null,
-    val tileList: List<ChannelTile>
+    val tileList: List<ChannelTile>,
+    val tileChanges: List<ListChange<ChannelTile>>? = null
 )
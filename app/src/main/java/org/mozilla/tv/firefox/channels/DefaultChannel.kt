@@ -4,13 +4,22 @@
 
 package org.mozilla.tv.firefox.channels
 
+import android.os.Looper
+import android.os.MessageQueue
 import android.view.View
 import android.view.ViewGroup
 import android.widget.TextView
+import androidx.annotation.UiThread
 import io.reactivex.Observable
+import io.reactivex.disposables.Disposable
+import io.reactivex.disposables.Disposables
 import kotlinx.android.synthetic.main.default_channel.view.channelSubtitle
+import kotlinx.android.synthetic.main.default_channel.view.channelTileContainer
 import kotlinx.android.synthetic.main.default_channel.view.channelTitle
 
+/** The tiles of the channels visible when the overlay is first shown. */
+private const val PREINFLATED_TILE_COUNT = VISIBLE_TILES_PER_CHANNEL * 2
+
 /**
  * A data container representing a standard channel on the homescreen. This class references a Context and must
  * be nulled when its lifecycle ends.
@@ -38,8 +47,35 @@ class DefaultChannel(
         subtitleView.text = subtitle
     }
 
-    fun setContents(tileData: List<ChannelTile>) {
-        adapter.submitList(tileData)
+    /** @param changes how [tileData] differs from the previous contents, if known. */
+    fun setContents(tileData: List<ChannelTile>, changes: List<ListChange<ChannelTile>>? = null) {
+        adapter.submitList(tileData, changes)
+    }
+
+    /**
+     * Inflates tiles into this channel's view pool, which is shared with the other channels, while
+     * the main thread is idle: e.g. while the first tiles are loaded. Then the channels can bind tiles
+     * from the pool rather than inflating them all in the frame they're first shown.
+     *
+     * Tiles are inflated one at a time, so input is handled between them, until the pool has [count]
+     * tiles, [count] tiles were inflated or the returned [Disposable] is disposed.
+     */
+    @UiThread
+    fun preinflateTiles(count: Int = PREINFLATED_TILE_COUNT): Disposable {
+        val recyclerView = channelContainer.channelTileContainer
+        val pool = recyclerView.recycledViewPool
+        val queue = Looper.myQueue()
+
+        var remaining = count // Bounds the work if the channels keep taking tiles from the pool.
+        val idleHandler = MessageQueue.IdleHandler {
+            val viewType = adapter.getItemViewType(0)
+            if (pool.getRecycledViewCount(viewType) < count) {
+                pool.putRecycledView(adapter.createViewHolder(recyclerView, viewType))
+            }
+            --remaining > 0 && pool.getRecycledViewCount(viewType) < count // Whether to keep inflating.
+        }
+        queue.addIdleHandler(idleHandler)
+        return Disposables.fromAction { queue.removeIdleHandler(idleHandler) }
     }
 
     private val titleView: TextView = channelContainer.channelTitle
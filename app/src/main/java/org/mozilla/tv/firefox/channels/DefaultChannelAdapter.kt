@@ -14,10 +14,16 @@ import android.view.View
 import android.view.ViewGroup
 import android.widget.ImageView
 import android.widget.TextView
+import androidx.annotation.UiThread
+import androidx.annotation.VisibleForTesting
 import androidx.recyclerview.widget.DiffUtil
-import androidx.recyclerview.widget.ListAdapter
 import androidx.recyclerview.widget.RecyclerView
 import io.reactivex.Observable
+import io.reactivex.Scheduler
+import io.reactivex.Single
+import io.reactivex.android.schedulers.AndroidSchedulers
+import io.reactivex.disposables.Disposable
+import io.reactivex.schedulers.Schedulers
 import io.reactivex.subjects.Subject
 import kotlinx.android.synthetic.main.dialog_channel_tiles.cancelButton
 import kotlinx.android.synthetic.main.dialog_channel_tiles.removeTileButton
@@ -25,25 +31,71 @@ import kotlinx.android.synthetic.main.dialog_channel_tiles.titleText
 import io.reactivex.subjects.PublishSubject
 import kotlinx.android.synthetic.main.home_tile.view.channel_cardview
 import org.mozilla.tv.firefox.R
+import java.util.concurrent.Executors
+
+/** Payloads for [DefaultChannelAdapter.onBindViewHolder]: only the parts of the tile that changed are bound. */
+@VisibleForTesting const val PAYLOAD_TITLE = 1
+@VisibleForTesting const val PAYLOAD_IMAGE = 2
 
 val DIFF_CALLBACK = object : DiffUtil.ItemCallback<ChannelTile>() {
     override fun areItemsTheSame(oldTile: ChannelTile, newTile: ChannelTile): Boolean {
-        return oldTile.url == newTile.url &&
-                oldTile.title == newTile.title
+        return oldTile.url == newTile.url
     }
 
     override fun areContentsTheSame(oldTile: ChannelTile, newTile: ChannelTile): Boolean {
-        return oldTile.url == newTile.url &&
-                oldTile.title == newTile.title
+        return oldTile.title == newTile.title &&
+                oldTile.setImage == newTile.setImage
+    }
+
+    override fun getChangePayload(oldTile: ChannelTile, newTile: ChannelTile): Any? {
+        var payload = 0
+        if (oldTile.title != newTile.title) payload = payload or PAYLOAD_TITLE
+        if (oldTile.setImage != newTile.setImage) payload = payload or PAYLOAD_IMAGE
+        return payload
     }
 }
 
+/**
+ * Shows the tiles of a channel. When the tiles change, the adapter is notified of the changes given
+ * to [submitList] or, if there are none, the changes found by comparing the lists off the main thread.
+ *
+ * Tiles have stable ids, by url, and binding is cheap: listeners, animators and drawables are
+ * created with each view holder, and binding a holder to the tile it already shows does nothing, so
+ * scrolling a channel back and forth doesn't allocate.
+ *
+ * View holders may be shared with other channels through a [RecyclerView.RecycledViewPool]: their
+ * listeners call the adapter they're bound to.
+ */
 class DefaultChannelAdapter(
     private val context: Context,
     private val loadUrl: (String) -> Unit,
     private val onTileFocused: (() -> Unit)?,
     private val channelConfig: ChannelConfig
-) : ListAdapter<ChannelTile, DefaultChannelTileViewHolder>(DIFF_CALLBACK) {
+) : RecyclerView.Adapter<DefaultChannelTileViewHolder>() {
+
+    companion object {
+        /**
+         * Lists are compared on a dedicated thread, one at a time: channels are compared all at once
+         * when the overlay opens and shouldn't compete with the computation pool.
+         */
+        @VisibleForTesting
+        internal var diffScheduler: Scheduler = Schedulers.from(Executors.newSingleThreadExecutor { Thread(it, "ChannelDiff") })
+    }
+
+    /** The tiles shown. */
+    private var tiles: List<ChannelTile> = emptyList()
+    /** The last tiles submitted: they're shown once they've been compared to [tiles]. */
+    private var submittedTiles: List<ChannelTile> = emptyList()
+    /** Disposed once the comparison is done, or when another list is submitted. */
+    private var pendingDiff: Disposable? = null
+    private val isDiffPending get() = pendingDiff?.isDisposed == false
+
+    /** The stable id of each url that was shown: there are only ever a few dozen. */
+    private val itemIds = HashMap<String, Long>()
+
+    /** Shared by the holders: each creates its own drawable from it, as drawables hold view state. */
+    private val focusRingDrawableState: Drawable.ConstantState? =
+        context.getDrawable(R.drawable.tile_selected_stroke)?.constantState
 
     private val _removeEvents: Subject<ChannelTile> = PublishSubject.create<ChannelTile>()
     val removeEvents: Observable<ChannelTile> = _removeEvents.hide()
@@ -54,10 +106,77 @@ class DefaultChannelAdapter(
      */
     val focusChangeObservable: Observable<Pair<Int, Boolean>> = _focusChangeObservable.hide()
 
+    init {
+        setHasStableIds(true)
+    }
+
+    /**
+     * Shows the tiles.
+     *
+     * @param changes how [newTiles] differs from the tiles last submitted, if known: they're applied
+     * directly rather than comparing the lists.
+     */
+    @UiThread
+    fun submitList(newTiles: List<ChannelTile>, changes: List<ListChange<ChannelTile>>? = null) {
+        val previousTiles = submittedTiles
+        submittedTiles = newTiles
+
+        // The changes are relative to the last tiles submitted: they can only be applied once those
+        // are shown, i.e. no comparison is pending.
+        if (changes != null && !isDiffPending && changes.isConsistent(previousTiles.size, newTiles.size)) {
+            tiles = newTiles
+            changes.forEach { notifyChange(it) }
+            return
+        }
+
+        pendingDiff?.dispose()
+        val oldTiles = tiles
+        pendingDiff = Single.fromCallable { DiffUtil.calculateDiff(TileDiffCallback(oldTiles, newTiles)) }
+            .subscribeOn(diffScheduler)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe { diff ->
+                tiles = newTiles
+                diff.dispatchUpdatesTo(this)
+            }
+    }
+
+    private fun notifyChange(change: ListChange<ChannelTile>) = when (change) {
+        is ListChange.Insert -> notifyItemInserted(change.index)
+        is ListChange.Remove -> notifyItemRemoved(change.index)
+        is ListChange.Move -> notifyItemMoved(change.fromIndex, change.toIndex)
+    }
+
+    override fun getItemCount() = tiles.size
+
+    override fun getItemId(position: Int): Long = itemIds.getOrPut(tiles[position].url) { itemIds.size.toLong() }
+
+    private fun getItem(position: Int) = tiles[position]
+
     override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): DefaultChannelTileViewHolder {
         val inflater = LayoutInflater.from(parent.context)
         val view = inflater.inflate(R.layout.home_tile, parent, false)
-        return DefaultChannelTileViewHolder(view)
+        val holder = DefaultChannelTileViewHolder(
+            view,
+            focusedAnimator = AnimatorInflater.loadStateListAnimator(context, R.animator.channel_item_animator_focused),
+            unfocusedAnimator = AnimatorInflater.loadStateListAnimator(context, R.animator.channel_item_animator_not_focused),
+            focusRingDrawable = focusRingDrawableState?.newDrawable(context.resources)
+        )
+        setListeners(holder)
+        return holder
+    }
+
+    override fun onBindViewHolder(holder: DefaultChannelTileViewHolder, position: Int, payloads: List<Any>) {
+        // Payloads are only given for changes found by comparing the lists: see DIFF_CALLBACK.
+        val changed = payloads.fold(0) { changed, payload -> changed or payload as Int }
+        if (payloads.isEmpty() || holder.tile == null) {
+            onBindViewHolder(holder, position)
+            return
+        }
+
+        val tile = getItem(position)
+        holder.tile = tile
+        if (changed and PAYLOAD_TITLE != 0) holder.titleView.text = tile.title
+        if (changed and PAYLOAD_IMAGE != 0) tile.setImage.invoke(holder.imageView)
     }
 
     override fun onBindViewHolder(holder: DefaultChannelTileViewHolder, position: Int) {
@@ -66,66 +185,131 @@ class DefaultChannelAdapter(
             // doesn't unfortunately handle tile removal - which is handled in
             // [ChannelLayoutManager.onRequestChildFocus()]
             ChannelTile.setChannelMarginByPosition(holder.itemView, context, position, itemCount)
+
+            if (boundAdapter != this@DefaultChannelAdapter) {
+                boundAdapter = this@DefaultChannelAdapter
+                itemView.isLongClickable = channelConfig.itemsMayBeRemoved
+            }
+
+            val previousTile = holder.tile
             val tile = getItem(position)
-            tile.setImage.invoke(imageView)
+            holder.tile = tile
+            if (previousTile == tile) return // e.g. it was scrolled off and back on screen.
 
+            if (previousTile?.setImage != tile.setImage) tile.setImage.invoke(imageView)
             titleView.text = tile.title
+        }
+    }
 
-            itemView.setOnClickListener {
-                loadUrl(tile.url)
-                channelConfig.onClickTelemetry?.invoke(tile)
-            }
+    /**
+     * The listeners read the tile and the adapter from the holder, so they're only set once: this
+     * adapter shouldn't be captured, as the holder may be bound by another channel later.
+     */
+    private fun setListeners(holder: DefaultChannelTileViewHolder) = with(holder) {
+        itemView.setOnClickListener {
+            val tile = tile ?: return@setOnClickListener
+            boundAdapter?.onTileClicked(tile)
+        }
 
-            if (channelConfig.itemsMayBeRemoved) {
-                setRemoveOnLongClickListener(itemView, tile)
-            }
+        itemView.setOnLongClickListener {
+            val tile = tile ?: return@setOnLongClickListener false
+            boundAdapter?.onTileLongClicked(tile) ?: false
+        }
 
-            itemView.setOnFocusChangeListener { _, hasFocus ->
-                // We can't use a selector for the tile cardview because we use the focused item to
-                // get the RecyclerView adapter position
-                val focusRingDrawable: Drawable?
-                val animation: StateListAnimator
-                if (hasFocus) {
-                    focusRingDrawable = context.getDrawable(R.drawable.tile_selected_stroke)
-                    animation = AnimatorInflater.loadStateListAnimator(context, R.animator.channel_item_animator_focused)
-                    onTileFocused?.invoke()
-                } else {
-                    focusRingDrawable = null
-                    animation = AnimatorInflater.loadStateListAnimator(context, R.animator.channel_item_animator_not_focused)
-                }
-                itemView.channel_cardview.stateListAnimator = animation
-                itemView.channel_cardview.foreground = focusRingDrawable
-                _focusChangeObservable.onNext(position to hasFocus)
-                channelConfig.onFocusTelemetry?.invoke(tile, hasFocus)
-            }
+        itemView.setOnFocusChangeListener { _, hasFocus ->
+            boundAdapter?.onTileFocusChanged(holder, hasFocus)
         }
     }
 
-    private fun setRemoveOnLongClickListener(itemView: View, tile: ChannelTile) {
-        itemView.setOnLongClickListener {
-            channelConfig.onLongClickTelemetry?.invoke(tile)
-            val dialog = Dialog(context, R.style.DialogStyle)
-            dialog.setContentView(R.layout.dialog_channel_tiles)
-            dialog.window?.setDimAmount(0.85f)
-
-            dialog.titleText.text = tile.generateRemoveTileTitleStr(context)
-            dialog.removeTileButton.setOnClickListener {
-                _removeEvents.onNext(tile)
-                dialog.dismiss()
-            }
+    private fun onTileClicked(tile: ChannelTile) {
+        loadUrl(tile.url)
+        channelConfig.onClickTelemetry?.invoke(tile)
+    }
 
-            dialog.cancelButton.setOnClickListener {
-                dialog.dismiss()
-            }
+    private fun onTileFocusChanged(holder: DefaultChannelTileViewHolder, hasFocus: Boolean) {
+        // We can't use a selector for the tile cardview because we use the focused item to
+        // get the RecyclerView adapter position
+        if (hasFocus) onTileFocused?.invoke()
+        holder.itemView.channel_cardview.stateListAnimator = if (hasFocus) holder.focusedAnimator else holder.unfocusedAnimator
+        holder.itemView.channel_cardview.foreground = if (hasFocus) holder.focusRingDrawable else null
+
+        // Focus can change during a layout pass or while the tile is removed, when it has no position.
+        val position = holder.adapterPosition
+        if (position == RecyclerView.NO_POSITION) return
+        _focusChangeObservable.onNext(position to hasFocus)
+        holder.tile?.let { channelConfig.onFocusTelemetry?.invoke(it, hasFocus) }
+    }
+
+    private fun onTileLongClicked(tile: ChannelTile): Boolean {
+        if (!channelConfig.itemsMayBeRemoved) return false
 
-            dialog.show()
+        channelConfig.onLongClickTelemetry?.invoke(tile)
+        val dialog = Dialog(context, R.style.DialogStyle)
+        dialog.setContentView(R.layout.dialog_channel_tiles)
+        dialog.window?.setDimAmount(0.85f)
 
-            true
+        dialog.titleText.text = tile.generateRemoveTileTitleStr(context)
+        dialog.removeTileButton.setOnClickListener {
+            _removeEvents.onNext(tile)
+            dialog.dismiss()
+        }
+
+        dialog.cancelButton.setOnClickListener {
+            dialog.dismiss()
+        }
+
+        dialog.show()
+
+        return true
+    }
+}
+
+/** Guards against changes that can't apply, e.g. because they were computed for another list. */
+private fun List<ListChange<*>>.isConsistent(oldSize: Int, newSize: Int): Boolean {
+    var size = oldSize
+    forEach { change ->
+        when (change) {
+            is ListChange.Insert -> if (change.index in 0..size) ++size else return false
+            is ListChange.Remove -> if (change.index in 0 until size) --size else return false
+            is ListChange.Move -> if (change.fromIndex !in 0 until size || change.toIndex !in 0 until size) return false
         }
     }
+    return size == newSize
 }
 
-class DefaultChannelTileViewHolder(itemView: View) : RecyclerView.ViewHolder(itemView) {
+private class TileDiffCallback(
+    private val oldTiles: List<ChannelTile>,
+    private val newTiles: List<ChannelTile>
+) : DiffUtil.Callback() {
+    override fun getOldListSize() = oldTiles.size
+    override fun getNewListSize() = newTiles.size
+
+    override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+        DIFF_CALLBACK.areItemsTheSame(oldTiles[oldItemPosition], newTiles[newItemPosition])
+
+    override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+        DIFF_CALLBACK.areContentsTheSame(oldTiles[oldItemPosition], newTiles[newItemPosition])
+
+    override fun getChangePayload(oldItemPosition: Int, newItemPosition: Int) =
+        DIFF_CALLBACK.getChangePayload(oldTiles[oldItemPosition], newTiles[newItemPosition])
+}
+
+/**
+ * The animators and drawable for the focus state are created once per holder: they hold the state
+ * of the view they're set on, so they can't be shared between holders.
+ */
+class DefaultChannelTileViewHolder(
+    itemView: View,
+    val focusedAnimator: StateListAnimator,
+    val unfocusedAnimator: StateListAnimator,
+    val focusRingDrawable: Drawable?
+) : RecyclerView.ViewHolder(itemView) {
     val titleView: TextView = itemView.findViewById(R.id.tile_title)
     val imageView: ImageView = itemView.findViewById(R.id.tile_icon)
+
+    /** The tile bound to this holder, if any. */
+    var tile: ChannelTile? = null
+
+    /** The adapter that last bound this holder: holders can move between channels. */
+    var boundAdapter: DefaultChannelAdapter? = null
 }
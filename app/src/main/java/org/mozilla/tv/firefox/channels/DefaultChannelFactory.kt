@@ -6,16 +6,34 @@ package org.mozilla.tv.firefox.channels
 
 import android.view.LayoutInflater
 import android.view.ViewGroup
+import androidx.recyclerview.widget.RecyclerView
 import kotlinx.android.synthetic.main.default_channel.view.channelTileContainer
 import org.mozilla.tv.firefox.R
 import org.mozilla.tv.firefox.architecture.KillswitchLayout
 
+/** [DefaultChannelAdapter] has a single view type. */
+private const val TILE_VIEW_TYPE = 0
+
+/**
+ * Enough tiles for the channels on screen plus those scrolled off: a few more than are pre-inflated,
+ * see [DefaultChannel.preinflateTiles].
+ */
+private const val MAX_RECYCLED_TILES = VISIBLE_TILES_PER_CHANNEL * 4
+
 // todo: kdoc
 class DefaultChannelFactory(
     private val loadUrl: (String) -> Unit,
     val onTileFocused: (() -> Unit)
 ) {
 
+    /**
+     * Shared by the channels created by this factory, so a tile scrolled off one channel can be
+     * bound in another rather than each channel inflating its own tiles.
+     */
+    private val tilePool = RecyclerView.RecycledViewPool().apply {
+        setMaxRecycledViews(TILE_VIEW_TYPE, MAX_RECYCLED_TILES)
+    }
+
     fun createChannel(
         parent: ViewGroup,
         id: Int? = null,
@@ -29,6 +47,7 @@ class DefaultChannelFactory(
             val channelLayoutManager = ChannelLayoutManager(context)
             layoutManager = channelLayoutManager
 
+            setRecycledViewPool(tilePool)
             adapter = channelAdapter
 
             // This blocks Android handle request ViewGroup descendant focus allowing us to handle
@@ -0,0 +1,81 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels
+
+/**
+ * Tiles to show in a channel.
+ *
+ * @property changes how [tiles] differs from the previous tiles emitted, if known: when it's null,
+ * compare the lists.
+ */
+data class ChannelTileList(
+    val tiles: List<ChannelTile>,
+    val changes: List<ListChange<ChannelTile>>? = null
+)
+
+/**
+ * Maps a list of items, e.g. pinned tiles, to [ChannelTile]s as it changes, only mapping the items
+ * that were inserted, and hides the blacklisted tiles.
+ *
+ * The changes to the visible tiles are passed on, so they don't need to be compared either.
+ *
+ * This class isn't thread-safe: create one for each subscription.
+ */
+class IncrementalChannelTileMapper<T>(private val toChannelTile: (T) -> ChannelTile) {
+
+    /** The tiles of every item, blacklisted or not, in the order of the items. */
+    private val allTiles = ArrayList<ChannelTile>()
+    private var blacklistIds: Set<String> = emptySet()
+
+    /** @param changes the changes to the items, starting with inserting all of them. */
+    fun applyChanges(changes: List<ListChange<T>>): ChannelTileList {
+        val visibleChanges = ArrayList<ListChange<ChannelTile>>(changes.size)
+        changes.forEach { change ->
+            when (change) {
+                is ListChange.Insert -> {
+                    val tile = toChannelTile(change.item)
+                    val visibleIndex = countVisibleTilesBefore(change.index)
+                    allTiles.add(change.index, tile)
+                    if (tile.isVisible()) visibleChanges.add(ListChange.Insert(visibleIndex, tile))
+                }
+                is ListChange.Remove -> {
+                    val visibleIndex = countVisibleTilesBefore(change.index)
+                    val tile = allTiles.removeAt(change.index)
+                    if (tile.isVisible()) visibleChanges.add(ListChange.Remove(visibleIndex))
+                }
+                is ListChange.Move -> {
+                    val visibleFromIndex = countVisibleTilesBefore(change.fromIndex)
+                    val tile = allTiles.removeAt(change.fromIndex)
+                    val visibleToIndex = countVisibleTilesBefore(change.toIndex)
+                    allTiles.add(change.toIndex, tile)
+                    if (tile.isVisible()) visibleChanges.add(ListChange.Move(visibleFromIndex, visibleToIndex))
+                }
+            }
+        }
+
+        return ChannelTileList(getVisibleTiles(), visibleChanges)
+    }
+
+    /** The blacklist changes rarely: the tiles are compared when it does. */
+    fun applyBlacklist(blacklistIds: Set<String>): ChannelTileList {
+        this.blacklistIds = blacklistIds
+        return ChannelTileList(getVisibleTiles())
+    }
+
+    private fun ChannelTile.isVisible() = id !in blacklistIds
+
+    private fun countVisibleTilesBefore(index: Int): Int {
+        if (blacklistIds.isEmpty()) return index
+
+        var count = 0
+        for (i in 0 until index) {
+            if (allTiles[i].isVisible()) ++count
+        }
+        return count
+    }
+
+    private fun getVisibleTiles(): List<ChannelTile> =
+        if (blacklistIds.isEmpty()) ArrayList(allTiles) else allTiles.filter { it.isVisible() }
+}
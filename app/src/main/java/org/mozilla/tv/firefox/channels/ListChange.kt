@@ -0,0 +1,30 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels
+
+/**
+ * A change to a list, e.g. of tiles, so observers can update their copy of the list in proportion to
+ * what changed rather than comparing the whole list.
+ *
+ * Changes come in ordered lists: the indices of each change are in the list as it is after the
+ * changes before it.
+ */
+sealed class ListChange<out T> {
+    data class Insert<out T>(val index: Int, val item: T) : ListChange<T>()
+    data class Remove(val index: Int) : ListChange<Nothing>()
+    /** [toIndex] is in the list with the item removed from [fromIndex]. */
+    data class Move(val fromIndex: Int, val toIndex: Int) : ListChange<Nothing>()
+}
+
+/** Applies the changes, in order, to this list. */
+fun <T> MutableList<T>.applyChanges(changes: List<ListChange<T>>) {
+    changes.forEach { change ->
+        when (change) {
+            is ListChange.Insert -> add(change.index, change.item)
+            is ListChange.Remove -> removeAt(change.index)
+            is ListChange.Move -> add(change.toIndex, removeAt(change.fromIndex))
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import androidx.annotation.WorkerThread
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.util.zip.CRC32
+import java.util.zip.CheckedInputStream
+import java.util.zip.CheckedOutputStream
+
+private const val TEMP_SUFFIX = ".tmp"
+private const val CHECKSUM_SUFFIX = ".crc"
+
+/*
+ * Writes files so a crash mid-write never leaves a partial file behind, and records a checksum of
+ * each to detect files that were damaged later.
+ *
+ * A file is written to a temporary file which is renamed over it once complete: renames within a
+ * directory are atomic. Its checksum is written next to it, in a sidecar file with
+ * [CHECKSUM_SUFFIX]: the file's length and CRC32.
+ *
+ * These functions aren't thread-safe: callers must lock each file while it's accessed.
+ */
+
+/**
+ * Atomically replaces the file with what [write] writes, and records its checksum.
+ *
+ * @throws IOException if the file couldn't be written: the previous file, if any, may be gone.
+ */
+@WorkerThread // file access.
+internal fun writeChecksummedFile(file: File, write: (OutputStream) -> Unit) {
+    val tempFile = getTempFile(file)
+    val checksum = CRC32()
+    try {
+        FileOutputStream(tempFile).use { fileOutput ->
+            val output = CheckedOutputStream(fileOutput.buffered(), checksum)
+            write(output)
+            output.flush()
+            fileOutput.fd.sync() // Or the rename may reach the disk before the data.
+        }
+
+        // The old checksum mustn't outlive the rename, or the new file would look damaged.
+        val checksumFile = getChecksumFile(file)
+        checksumFile.delete()
+        if (!tempFile.renameTo(file)) {
+            throw IOException("Unable to rename $tempFile")
+        }
+
+        writeChecksum(checksumFile, file.length(), checksum.value)
+    } finally {
+        tempFile.delete()
+    }
+}
+
+/**
+ * Records the checksum of a file written before checksums were, once it's been checked otherwise.
+ */
+@WorkerThread // file access.
+internal fun writeChecksumOfExistingFile(file: File) {
+    writeChecksum(getChecksumFile(file), file.length(), computeChecksum(file))
+}
+
+/**
+ * @return true if the file matches its checksum, false if it doesn't, or null if it has no
+ * checksum, e.g. because it was written before checksums were or a crash happened between renaming
+ * it and writing its checksum.
+ */
+@WorkerThread // file access.
+internal fun matchesChecksum(file: File): Boolean? {
+    val checksumFile = getChecksumFile(file)
+    if (!checksumFile.exists()) return null
+
+    val (expectedLength, expectedChecksum) = try {
+        DataInputStream(checksumFile.inputStream()).use { it.readLong() to it.readLong() }
+    } catch (e: IOException) {
+        return null // The checksum file is damaged, not necessarily the file.
+    }
+
+    return try {
+        file.length() == expectedLength && computeChecksum(file) == expectedChecksum
+    } catch (e: IOException) {
+        false
+    }
+}
+
+/** Deletes the file and its checksum. */
+@WorkerThread // file access.
+internal fun deleteChecksummedFile(file: File) {
+    file.delete()
+    getChecksumFile(file).delete()
+}
+
+/** @return the name of the file the given file in the same directory belongs to, e.g. its own. */
+internal fun getChecksummedFileName(file: File): String = file.name.removeSuffix(TEMP_SUFFIX).removeSuffix(CHECKSUM_SUFFIX)
+
+internal fun isChecksumFile(file: File) = file.name.endsWith(CHECKSUM_SUFFIX)
+
+internal fun getTempFile(file: File) = File(file.path + TEMP_SUFFIX)
+internal fun getChecksumFile(file: File) = File(file.path + CHECKSUM_SUFFIX)
+
+private fun writeChecksum(checksumFile: File, length: Long, checksum: Long) {
+    // The checksum is tiny but it's written atomically too, so it's never read half-written.
+    val tempFile = getTempFile(checksumFile)
+    try {
+        DataOutputStream(FileOutputStream(tempFile)).use {
+            it.writeLong(length)
+            it.writeLong(checksum)
+        }
+        if (!tempFile.renameTo(checksumFile)) {
+            throw IOException("Unable to rename $tempFile")
+        }
+    } finally {
+        tempFile.delete()
+    }
+}
+
+private fun computeChecksum(file: File): Long {
+    val checksum = CRC32()
+    CheckedInputStream(file.inputStream(), checksum).use { input ->
+        val buffer = ByteArray(8192)
+        var readCount: Int
+        do {
+            readCount = input.read(buffer) // The checksum is updated as it's read.
+        } while (readCount != -1)
+    }
+    return checksum.value
+}
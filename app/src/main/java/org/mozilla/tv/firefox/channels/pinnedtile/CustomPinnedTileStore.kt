@@ -0,0 +1,174 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import android.content.Context
+import android.content.SharedPreferences
+import android.util.Log
+import androidx.annotation.VisibleForTesting
+import io.reactivex.Completable
+import io.reactivex.Scheduler
+import io.reactivex.schedulers.Schedulers
+import org.json.JSONArray
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.UUID
+
+private const val LOGTAG = "CustomPinnedTileStore"
+
+private const val FILE_NAME = "custom_pinned_tiles"
+private const val MAGIC = 0x50494e31 // "PIN1"
+
+private const val RECORD_ADD = 1
+private const val RECORD_REMOVE = 2
+
+/** Where custom tiles were stored before this store: a JSON array of every tile. */
+@VisibleForTesting internal const val LEGACY_CUSTOM_SITES_LIST = "customSitesList"
+
+/** Removed tiles leave stale records in the log: it's compacted when there are more than this many. */
+@VisibleForTesting internal const val MIN_STALE_RECORDS_TO_COMPACT = 64
+
+/**
+ * Persists custom pinned tiles as an append-only log, so pinning or unpinning a tile writes a
+ * single small record no matter how many tiles are pinned.
+ *
+ * The log is a binary file:
+ * - int: [MAGIC]
+ * - records, each starting with a byte type and the tile's UUID as two longs:
+ *   - [RECORD_ADD], followed by the modified UTF-8 url and title of the tile
+ *   - [RECORD_REMOVE]
+ *
+ * [load] replays the log and, when stale records have piled up, rewrites it with only the tiles
+ * that are still pinned. A record torn by a crash mid-write is dropped along with anything after it.
+ *
+ * Tiles used to be stored as a JSON array in SharedPreferences: [load] migrates them.
+ *
+ * Writes happen in order on [writeScheduler], off the calling thread.
+ */
+class CustomPinnedTileStore @VisibleForTesting constructor(
+    private val file: File,
+    private val legacyPreferences: SharedPreferences,
+    private val writeScheduler: Scheduler = Schedulers.single()
+) {
+
+    constructor(context: Context, legacyPreferences: SharedPreferences) :
+            this(File(context.filesDir, FILE_NAME), legacyPreferences)
+
+    /** @return the stored tiles, keyed by url, in the order they were pinned. */
+    fun load(): LinkedHashMap<String, CustomPinnedTile> {
+        if (!file.exists()) {
+            return migrateLegacyTiles()
+        }
+
+        val tilesById = LinkedHashMap<UUID, CustomPinnedTile>()
+        var recordCount = 0
+        var isDamaged = false
+        try {
+            DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != MAGIC) {
+                    throw IOException("Unexpected pinned tile file format")
+                }
+
+                while (true) {
+                    val type = input.read()
+                    if (type == -1) break
+
+                    val id = UUID(input.readLong(), input.readLong())
+                    when (type) {
+                        RECORD_ADD -> tilesById[id] = CustomPinnedTile(url = input.readUTF(), title = input.readUTF(), id = id)
+                        RECORD_REMOVE -> tilesById.remove(id)
+                        else -> throw IOException("Unexpected record type: $type")
+                    }
+                    ++recordCount
+                }
+            }
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to read all pinned tiles", e)
+            isDamaged = true
+        }
+
+        val tiles = tilesById.values.associateByTo(LinkedHashMap()) { it.url }
+        val staleRecordCount = recordCount - tiles.size
+        if (isDamaged || staleRecordCount > Math.max(MIN_STALE_RECORDS_TO_COMPACT, tiles.size)) {
+            writeSnapshot(tiles.values.toList())
+        }
+        return tiles
+    }
+
+    fun add(tile: CustomPinnedTile) = append {
+        writeAddRecord(tile)
+    }
+
+    fun remove(tile: CustomPinnedTile) = append {
+        writeByte(RECORD_REMOVE)
+        writeId(tile.id)
+    }
+
+    private fun migrateLegacyTiles(): LinkedHashMap<String, CustomPinnedTile> {
+        val tilesJSONArray = JSONArray(legacyPreferences.getString(LEGACY_CUSTOM_SITES_LIST, "[]"))
+        val tiles = LinkedHashMap<String, CustomPinnedTile>()
+        for (i in 0 until tilesJSONArray.length()) {
+            val tile = CustomPinnedTile.fromJSONObject(tilesJSONArray.getJSONObject(i))
+            tiles[tile.url] = tile
+        }
+
+        // Only drop the legacy tiles once they're safely in the log.
+        writeSnapshot(tiles.values.toList()) {
+            legacyPreferences.edit().remove(LEGACY_CUSTOM_SITES_LIST).apply()
+        }
+        return tiles
+    }
+
+    private fun append(writeRecord: DataOutputStream.() -> Unit) = write {
+        try {
+            val isNewFile = !file.exists()
+            DataOutputStream(FileOutputStream(file, true).buffered()).use { output ->
+                if (isNewFile) output.writeInt(MAGIC)
+                output.writeRecord()
+            }
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to save pinned tile", e)
+        }
+    }
+
+    private fun writeSnapshot(tiles: List<CustomPinnedTile>, onWritten: () -> Unit = {}) = write {
+        // Write to a temporary file and rename it so a crash mid-write can't lose the tiles.
+        val tempFile = File(file.path + ".tmp")
+        try {
+            DataOutputStream(tempFile.outputStream().buffered()).use { output ->
+                output.writeInt(MAGIC)
+                tiles.forEach { output.writeAddRecord(it) }
+            }
+            if (!tempFile.renameTo(file)) {
+                throw IOException("Unable to rename $tempFile")
+            }
+            onWritten()
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to save pinned tiles", e)
+            tempFile.delete()
+        }
+    }
+
+    private fun write(action: () -> Unit) {
+        Completable.fromAction(action)
+                .subscribeOn(writeScheduler)
+                .subscribe()
+    }
+}
+
+private fun DataOutputStream.writeAddRecord(tile: CustomPinnedTile) {
+    writeByte(RECORD_ADD)
+    writeId(tile.id)
+    writeUTF(tile.url)
+    writeUTF(tile.title)
+}
+
+private fun DataOutputStream.writeId(id: UUID) {
+    writeLong(id.mostSignificantBits)
+    writeLong(id.leastSignificantBits)
+}
@@ -4,7 +4,7 @@
 
 package org.mozilla.tv.firefox.channels.pinnedtile
 
-import androidx.annotation.WorkerThread
+import androidx.annotation.AnyThread
 import org.json.JSONObject
 import org.mozilla.tv.firefox.channels.ChannelTile
 import org.mozilla.tv.firefox.channels.ImageSetStrategy
@@ -16,8 +16,6 @@ import java.util.UUID
 
 private const val KEY_URL = "url"
 private const val KEY_TITLE = "title"
-
-private const val KEY_IMG = "img"
 private const val KEY_ID = "id"
 
 sealed class PinnedTile(val url: String, val title: String) {
@@ -31,7 +29,9 @@ sealed class PinnedTile(val url: String, val title: String) {
         put(KEY_TITLE, title)
     }
 
-    @WorkerThread // This performs file access
+    // CustomPinnedTile formats its title with the public suffix list, which blocks until the list
+    // is loaded: wait for PublicSuffix.whenReady before calling this on the main thread.
+    @AnyThread
     abstract fun toChannelTile(
         imageUtilityWrapper: PinnedTileImageUtilWrapper,
         formattedDomainWrapper: FormattedDomainWrapper
@@ -46,20 +46,6 @@ class BundledPinnedTile(
     val id: String
 ) : PinnedTile(url, title) {
 
-    public override fun toJSONObject() = super.toJSONObject().apply {
-        put(KEY_IMG, imagePath)
-        put(KEY_ID, id)
-    }
-
-    companion object {
-        fun fromJSONObject(jsonObject: JSONObject): BundledPinnedTile {
-            return BundledPinnedTile(jsonObject.getString(KEY_URL),
-                    jsonObject.getString(KEY_TITLE),
-                    jsonObject.getString(KEY_IMG),
-                    jsonObject.getString(KEY_ID))
-        }
-    }
-
     override fun toChannelTile(
         imageUtilityWrapper: PinnedTileImageUtilWrapper,
         formattedDomainWrapper: FormattedDomainWrapper
@@ -101,7 +87,7 @@ class CustomPinnedTile(
                 url = url,
                 title = createTitle(formattedDomainWrapper),
                 subtitle = null,
-                setImage = ImageSetStrategy.ByFile(imageUtilityWrapper.getFileForUUID(id), backup),
+                setImage = ImageSetStrategy.ByScreenshot(id, backup),
                 // todo: fix scope, double check this tileSource is okay.
                 tileSource = TileSource.CUSTOM,
                 id = idToString()
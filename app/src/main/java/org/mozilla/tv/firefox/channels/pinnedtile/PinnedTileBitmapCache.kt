@@ -0,0 +1,97 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.util.LruCache
+import androidx.annotation.AnyThread
+import androidx.annotation.VisibleForTesting
+import java.util.UUID
+
+/**
+ * The most memory the cached bitmaps take up. Thumbnails are ~0.3MiB at 1080p, so this holds dozens
+ * of tiles on most devices.
+ */
+private val MAX_CACHE_BYTES = (Runtime.getRuntime().maxMemory() / 16).toInt()
+
+/** Evicted bitmaps kept to decode into: a few are enough to decode a row of tiles. */
+private const val MAX_REUSABLE_BITMAPS = 4
+
+/**
+ * A memory cache of decoded pinned tile thumbnails, keyed by tile UUID, so showing the tiles again,
+ * e.g. each time the overlay is opened, doesn't decode them again. [PinnedTileScreenshotStore] fills
+ * it and [PinnedTileScreenshotLoader] reads from it.
+ *
+ * The cache is bounded by the bytes its bitmaps take up. Evicted bitmaps are kept, see
+ * [takeReusableBitmap], to decode new thumbnails into with [BitmapFactory.Options.inBitmap] rather
+ * than allocating a new bitmap for each.
+ *
+ * This class is thread-safe.
+ */
+object PinnedTileBitmapCache {
+
+    /** Guarded by itself. */
+    private val reusableBitmaps = ArrayList<Bitmap>(MAX_REUSABLE_BITMAPS)
+
+    private val cache = object : LruCache<UUID, Bitmap>(MAX_CACHE_BYTES) {
+        override fun sizeOf(key: UUID, value: Bitmap) = value.allocationByteCount
+
+        override fun entryRemoved(evicted: Boolean, key: UUID, oldValue: Bitmap, newValue: Bitmap?) {
+            // Removed bitmaps are being replaced or belong to removed tiles, which may still be shown
+            // as they're animated away: only evicted bitmaps are safe to reuse.
+            if (evicted) offerReusableBitmap(oldValue)
+        }
+    }
+
+    @AnyThread
+    fun get(uuid: UUID): Bitmap? = cache.get(uuid)
+
+    @AnyThread
+    fun put(uuid: UUID, bitmap: Bitmap) {
+        cache.put(uuid, bitmap)
+    }
+
+    /** Removes the bitmap for this tile, e.g. because its screenshot changed or it was unpinned. */
+    @AnyThread
+    fun remove(uuid: UUID) {
+        cache.remove(uuid)
+    }
+
+    /**
+     * Takes an evicted bitmap to decode into, if any. Evicted bitmaps may still be shown, e.g. when
+     * more tiles are shown than fit in the cache, so the caller must say which bitmaps are in use.
+     *
+     * Return the bitmap with [offerReusableBitmap] if it isn't used.
+     */
+    @AnyThread
+    fun takeReusableBitmap(isInUse: (Bitmap) -> Boolean): Bitmap? = synchronized(reusableBitmaps) {
+        reusableBitmaps.removeAll { it.isRecycled }
+        val index = reusableBitmaps.indexOfFirst { !isInUse(it) }
+        if (index < 0) null else reusableBitmaps.removeAt(index)
+    }
+
+    @AnyThread
+    fun offerReusableBitmap(bitmap: Bitmap) {
+        if (!bitmap.isMutable || bitmap.isRecycled) return // Required by inBitmap.
+
+        synchronized(reusableBitmaps) {
+            if (reusableBitmaps.size < MAX_REUSABLE_BITMAPS && reusableBitmaps.none { it === bitmap }) {
+                reusableBitmaps.add(bitmap)
+            }
+        }
+    }
+
+    @AnyThread
+    fun onLowMemory() {
+        cache.evictAll()
+        synchronized(reusableBitmaps) { reusableBitmaps.clear() }
+    }
+
+    @VisibleForTesting
+    internal fun resize(maxBytes: Int = MAX_CACHE_BYTES) {
+        cache.resize(maxBytes)
+    }
+}
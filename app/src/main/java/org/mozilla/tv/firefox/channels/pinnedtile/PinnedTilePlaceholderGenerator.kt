@@ -7,44 +7,55 @@ package org.mozilla.tv.firefox.channels.pinnedtile
 import android.content.Context
 import android.graphics.Bitmap
 import android.graphics.Canvas
-import android.graphics.Paint
 import android.net.Uri
+import android.util.LruCache
 import androidx.core.content.ContextCompat
 import android.util.TypedValue
+import mozilla.components.support.ktx.android.graphics.withRoundedCorners
 import org.mozilla.tv.firefox.R
+import org.mozilla.tv.firefox.utils.GlyphCache
 import org.mozilla.tv.firefox.utils.UrlUtils
 
+/** Placeholders only differ by their character: this holds one for each letter and digit, and more. */
+private const val CACHE_SIZE = 64
+
 class PinnedTilePlaceholderGenerator {
 
     companion object {
         private val TEXT_SIZE_DP = 22f
         private val DEFAULT_ICON_CHAR = '?'
 
-        fun generate(context: Context, url: String?): Bitmap {
+        private data class Key(val character: Char, val sizePx: Int, val cornerRadiusPx: Float)
+
+        private val cache = LruCache<Key, Bitmap>(CACHE_SIZE)
+
+        /**
+         * Generates the placeholder for a tile, its URL's representative character on a rounded
+         * square. Placeholders are cached, so the tile list can be emitted again without allocating
+         * new bitmaps: the returned bitmap is shared and must not be modified or recycled.
+         */
+        fun generate(context: Context, url: String?, cornerRadiusPx: Float): Bitmap {
             val startingChar = getRepresentativeCharacter(url)
             val dimen = context.resources.getDimensionPixelSize(R.dimen.home_tile_placeholder_icon_size)
-            val bitmap = Bitmap.createBitmap(dimen, dimen, Bitmap.Config.ARGB_8888)
+            val key = Key(startingChar, dimen, cornerRadiusPx)
+            return cache.get(key) ?: render(context, key).also { cache.put(key, it) }
+        }
+
+        private fun render(context: Context, key: Key): Bitmap {
+            val bitmap = Bitmap.createBitmap(key.sizePx, key.sizePx, Bitmap.Config.ARGB_8888)
             bitmap.eraseColor(ContextCompat.getColor(context, R.color.tv_ink))
-            return drawCharacterOnBitmap(context, startingChar, bitmap)
+            drawCharacterOnBitmap(context, key.character, bitmap)
+
+            val roundedBitmap = bitmap.withRoundedCorners(key.cornerRadiusPx)
+            if (roundedBitmap !== bitmap) bitmap.recycle()
+            return roundedBitmap
         }
 
-        private fun drawCharacterOnBitmap(context: Context, character: Char, bitmap: Bitmap): Bitmap {
+        private fun drawCharacterOnBitmap(context: Context, character: Char, bitmap: Bitmap) {
             val desiredTextSize = TypedValue.applyDimension(
                     TypedValue.COMPLEX_UNIT_DIP, TEXT_SIZE_DP, context.resources.displayMetrics)
-            val paint = Paint().apply {
-                color = ContextCompat.getColor(context, R.color.tv_white)
-                textAlign = Paint.Align.CENTER
-                textSize = desiredTextSize
-                isAntiAlias = true
-            }
-
-            val canvas = Canvas(bitmap)
-            canvas.drawText(character.toString(),
-                    canvas.width / 2.0f,
-                    canvas.height / 2.0f - (paint.descent() + paint.ascent()) / 2.0f,
-                    paint)
-
-            return bitmap
+            GlyphCache.drawCentered(Canvas(bitmap), character, desiredTextSize,
+                    ContextCompat.getColor(context, R.color.tv_white))
         }
 
         /**
@@ -12,22 +12,29 @@ import androidx.annotation.VisibleForTesting
 import androidx.lifecycle.LiveDataReactiveStreams
 import io.reactivex.BackpressureStrategy
 import io.reactivex.Observable
+import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.subjects.BehaviorSubject
-import org.json.JSONArray
-import org.json.JSONObject
+import io.reactivex.subjects.PublishSubject
+import org.mozilla.tv.firefox.channels.ListChange
 import java.util.UUID
 import java.util.Collections
-import kotlin.collections.ArrayList
 import kotlin.collections.LinkedHashMap
 
-private const val CUSTOM_SITES_LIST = "customSitesList"
 private const val PREF_HOME_TILES = "homeTiles"
+private const val BLACKLIST_PINNED_TILES = "blacklist_pinned_tiles"
+
+/** Bundled tiles shown before the custom tiles: all other bundled tiles are shown after them. */
+private val FEATURED_BUNDLED_IDS = setOf("youtube", "googleVideo")
 
 /**
  * Pinned Tile Repository.
  * This class manages and persists pinned tiles data. It should not be aware of View scope.
  *
- * @property applicationContext used to access [SharedPreferences] and [assets] for bundled tiles
+ * Tiles are updated in place as they're pinned and unpinned: custom tiles are persisted
+ * incrementally by [CustomPinnedTileStore] and nothing is reloaded. Observers can follow these
+ * changes with [pinnedTileChanges] rather than comparing every tile in [pinnedTiles].
+ *
+ * @property applicationContext used to access [SharedPreferences]
  * @constructor loads the initial [_pinnedTiles] (a combination of custom and bundled tiles)
  */
 class PinnedTileRepo(
@@ -37,6 +44,18 @@ class PinnedTileRepo(
             BehaviorSubject.create()
     val pinnedTiles: Observable<LinkedHashMap<String, PinnedTile>> = _pinnedTiles.hide()
 
+    private val _pinnedTileChanges: PublishSubject<List<ListChange<PinnedTile>>> = PublishSubject.create()
+    /**
+     * The changes to the pinned tiles, in the order of [pinnedTiles]. The first emission inserts the
+     * tiles pinned when subscribing: each subscriber can build its own copy of the tiles from there.
+     *
+     * Tiles are changed on the main thread so this is subscribed to, and emits, on the main thread.
+     */
+    val pinnedTileChanges: Observable<List<ListChange<PinnedTile>>> = Observable.defer {
+        val initialChanges = _pinnedTiles.value!!.values.mapIndexed { i, tile -> ListChange.Insert(i, tile) }
+        _pinnedTileChanges.startWith(Observable.just(initialChanges))
+    }.subscribeOn(AndroidSchedulers.mainThread())
+
     val isEmpty: Observable<Boolean> = _pinnedTiles.map { it.size == 0 }
             .distinctUntilChanged()
 
@@ -49,9 +68,15 @@ class PinnedTileRepo(
     var bundledTilesSize = 0
 
     private val _sharedPreferences: SharedPreferences = applicationContext.getSharedPreferences(PREF_HOME_TILES, Context.MODE_PRIVATE)
+    private val customTileStore = CustomPinnedTileStore(applicationContext, _sharedPreferences)
+
+    /** The urls of the bundled tiles shown after the custom tiles, in order. */
+    private val unfeaturedBundledUrls: List<String>
 
     init {
-        _pinnedTiles.onNext(loadTilesCache())
+        val bundledTiles = loadBundledTilesCache()
+        unfeaturedBundledUrls = bundledTiles.values.filter { it.id !in FEATURED_BUNDLED_IDS }.map { it.url }
+        _pinnedTiles.onNext(loadTilesCache(bundledTiles))
     }
 
     @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
@@ -59,10 +84,8 @@ class PinnedTileRepo(
         bundledTiles: LinkedHashMap<String, BundledPinnedTile> = loadBundledTilesCache(),
         customTiles: LinkedHashMap<String, CustomPinnedTile> = loadCustomTilesCache()
     ): LinkedHashMap<String, PinnedTile> {
-        val featuredIds = setOf("youtube", "googleVideo")
-
-        val featuredBundledTiles = bundledTiles.filter { it.value.id in featuredIds }
-        val unfeaturedBundledTiles = bundledTiles.filter { it.value.id !in featuredIds }
+        val featuredBundledTiles = bundledTiles.filter { it.value.id in FEATURED_BUNDLED_IDS }
+        val unfeaturedBundledTiles = bundledTiles.filter { it.value.id !in FEATURED_BUNDLED_IDS }
 
         val pinnedTiles = linkedMapOf<String, PinnedTile>().apply {
             putAll(featuredBundledTiles)
@@ -73,20 +96,34 @@ class PinnedTileRepo(
         return pinnedTiles
     }
 
+    @UiThread
     fun addPinnedTile(url: String, screenshot: Bitmap?) {
+        val pinnedTiles = _pinnedTiles.value!!
+        if (pinnedTiles.containsKey(url)) return
+
         val newPinnedTile = CustomPinnedTile(url, "custom", UUID.randomUUID()) // TODO: titles
-        // This method does some dangerous mutation in place.  Be careful when making changes, and
-        // if you have the time, please clean this up
-        if (_pinnedTiles.value?.put(url, newPinnedTile) != null) return
-        persistCustomTiles()
+        val index = pinnedTiles.size - unfeaturedBundledUrls.count { pinnedTiles.containsKey(it) }
+        pinnedTiles[url] = newPinnedTile
+        moveUnfeaturedBundledTilesToEnd(pinnedTiles)
+        customTileStore.add(newPinnedTile)
 
         if (screenshot != null) {
             PinnedTileScreenshotStore.saveAsync(applicationContext, newPinnedTile.id, screenshot)
         }
         ++customTilesSize
 
-        // We reload tiles from the DB in order to avoid duplicating ordering logic in loadTilesCache
-        _pinnedTiles.onNext(loadTilesCache())
+        _pinnedTiles.onNext(pinnedTiles)
+        _pinnedTileChanges.onNext(listOf(ListChange.Insert(index, newPinnedTile)))
+    }
+
+    /**
+     * Restores the order from [loadTilesCache] after a custom tile is appended. There are only a
+     * handful of bundled tiles so this takes constant time, however many custom tiles are pinned.
+     */
+    private fun moveUnfeaturedBundledTilesToEnd(pinnedTiles: LinkedHashMap<String, PinnedTile>) {
+        unfeaturedBundledUrls.forEach { url ->
+            pinnedTiles.remove(url)?.let { pinnedTiles[url] = it }
+        }
     }
 
     /**
@@ -95,8 +132,11 @@ class PinnedTileRepo(
      */
     @UiThread
     fun removePinnedTile(url: String): String? {
-        val tileToRemove = _pinnedTiles.value?.remove(url) ?: return null
-        _pinnedTiles.onNext(_pinnedTiles.value!!)
+        val pinnedTiles = _pinnedTiles.value ?: return null
+        val index = pinnedTiles.keys.indexOf(url)
+        val tileToRemove = pinnedTiles.remove(url) ?: return null
+        _pinnedTiles.onNext(pinnedTiles)
+        _pinnedTileChanges.onNext(listOf(ListChange.Remove(index)))
 
         when (tileToRemove) {
             is BundledPinnedTile -> {
@@ -104,7 +144,7 @@ class PinnedTileRepo(
                 --bundledTilesSize
             }
             is CustomPinnedTile -> {
-                persistCustomTiles()
+                customTileStore.remove(tileToRemove)
                 PinnedTileScreenshotStore.removeAsync(applicationContext, tileToRemove.id)
                 --customTilesSize
             }
@@ -113,41 +153,12 @@ class PinnedTileRepo(
         return tileToRemove.idToString()
     }
 
-    @Deprecated("Unify PINNED_TILE logic in #2366")
-    private fun getBundledPinnedTiles(): List<JSONObject> {
-        val bundledTilePath = "bundled/bundled_tiles.json"
-
-        val blacklist = _sharedPreferences.getStringSet("blacklist_pinned_tiles", Collections.emptySet())!!
-        val tilesJSONString = applicationContext.assets.open(bundledTilePath).bufferedReader().use { it.readText() }
-        val tilesJSONArray = JSONArray(tilesJSONString)
-        val jsonList = ArrayList<JSONObject>()
-
-        for (i in 0 until tilesJSONArray.length()) {
-            val jsonObject = tilesJSONArray.getJSONObject(i)
-            if (!blacklist.contains(jsonObject.getString("id"))) {
-                jsonList.add(jsonObject)
-            }
-        }
-
-        return jsonList
-    }
-
-    private fun persistCustomTiles() {
-        val tilesJSONArray = JSONArray()
-        for (tile in _pinnedTiles.value!!.values) {
-            if (tile is CustomPinnedTile) tilesJSONArray.put(tile.toJSONObject())
-        }
-
-        _sharedPreferences.edit().putString(CUSTOM_SITES_LIST, tilesJSONArray.toString()).apply()
-    }
-
-    @Suppress("Deprecation")
     private fun loadBundledTilesCache(): LinkedHashMap<String, BundledPinnedTile> {
-        val tilesJSONList = getBundledPinnedTiles()
-        val lhm = LinkedHashMap<String, BundledPinnedTile>(tilesJSONList.size)
-        for (jsonObject in tilesJSONList) {
-            val tile = BundledPinnedTile.fromJSONObject(jsonObject)
-            lhm[tile.url] = tile
+        // Bundled tiles are compiled into the app at build time: see GenerateBundledPinnedTiles.
+        val blacklist = _sharedPreferences.getStringSet(BLACKLIST_PINNED_TILES, Collections.emptySet())!!
+        val lhm = LinkedHashMap<String, BundledPinnedTile>(BUNDLED_PINNED_TILES.size)
+        for (tile in BUNDLED_PINNED_TILES) {
+            if (tile.id !in blacklist) lhm[tile.url] = tile
         }
         bundledTilesSize = lhm.size
 
@@ -155,14 +166,9 @@ class PinnedTileRepo(
     }
 
     private fun loadCustomTilesCache(): LinkedHashMap<String, CustomPinnedTile> {
-        val tilesJSONArray = JSONArray(_sharedPreferences.getString(CUSTOM_SITES_LIST, "[]"))
-        val lhm = LinkedHashMap<String, CustomPinnedTile>()
-        for (i in 0 until tilesJSONArray.length()) {
-            val tileJSON = tilesJSONArray.getJSONObject(i)
-            val tile = CustomPinnedTile.fromJSONObject(tileJSON)
-            lhm.put(tile.url, tile)
-        }
+        val lhm = customTileStore.load()
         customTilesSize = lhm.size
+        PinnedTileScreenshotStore.scrubAsync(applicationContext, lhm.values.map { it.id })
 
         return lhm
     }
@@ -0,0 +1,79 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import android.graphics.Bitmap
+import android.graphics.drawable.BitmapDrawable
+import android.graphics.drawable.Drawable
+import android.widget.ImageView
+import androidx.annotation.UiThread
+import com.squareup.picasso.Transformation
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import org.mozilla.tv.firefox.R
+import java.util.UUID
+import java.util.WeakHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Sets pinned tile screenshots on [ImageView]s from [PinnedTileBitmapCache], reading them from
+ * [PinnedTileScreenshotStore] off the main thread when they aren't cached.
+ */
+object PinnedTileScreenshotLoader {
+
+    /** The views screenshots were set on: the bitmaps they show mustn't be decoded into. */
+    private val boundViews = WeakHashMap<ImageView, Unit>()
+
+    @UiThread
+    fun load(imageView: ImageView, uuid: UUID, placeholder: Drawable, transformation: Transformation?) {
+        cancel(imageView)
+        boundViews[imageView] = Unit
+
+        val cachedBitmap = PinnedTileBitmapCache.get(uuid)
+        if (cachedBitmap != null) {
+            imageView.setScreenshot(cachedBitmap, transformation)
+            return
+        }
+
+        imageView.setImageDrawable(placeholder)
+        val context = imageView.context.applicationContext
+        val reusableBitmap = PinnedTileBitmapCache.takeReusableBitmap(::isShown)
+        // Once the store has the reusable bitmap, it returns it to the cache if it doesn't decode into it.
+        val isReusableBitmapPassedToStore = AtomicBoolean(false)
+        val load = GlobalScope.launch(Dispatchers.Main) {
+            val screenshot = withContext(Dispatchers.IO) {
+                isReusableBitmapPassedToStore.set(true)
+                PinnedTileScreenshotStore.read(context, uuid, reusableBitmap = reusableBitmap)
+            }
+            if (screenshot != null && isActive) { // Cancelled if the view was bound to another image.
+                imageView.setScreenshot(screenshot, transformation)
+            }
+        }
+        // The load may be cancelled before it reads, e.g. when the view is bound again right away.
+        load.invokeOnCompletion {
+            if (!isReusableBitmapPassedToStore.get()) reusableBitmap?.let { PinnedTileBitmapCache.offerReusableBitmap(it) }
+        }
+        imageView.setTag(R.id.pinned_tile_screenshot_load, load)
+    }
+
+    /** Cancels any screenshot still loading into this view, e.g. because it shows another image now. */
+    @UiThread
+    fun cancel(imageView: ImageView) {
+        (imageView.getTag(R.id.pinned_tile_screenshot_load) as? Job)?.cancel()
+        imageView.setTag(R.id.pinned_tile_screenshot_load, null)
+    }
+
+    private fun isShown(bitmap: Bitmap) = boundViews.keys.any { (it.drawable as? BitmapDrawable)?.bitmap === bitmap }
+
+    private fun ImageView.setScreenshot(screenshot: Bitmap, transformation: Transformation?) {
+        // Transformations may recycle their input, which is cached: give them a copy.
+        val bitmap = transformation?.transform(screenshot.copy(screenshot.config, false)) ?: screenshot
+        setImageBitmap(bitmap)
+    }
+}
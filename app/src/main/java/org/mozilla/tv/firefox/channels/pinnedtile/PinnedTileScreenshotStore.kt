@@ -7,18 +7,29 @@ package org.mozilla.tv.firefox.channels.pinnedtile
 import android.content.Context
 import android.graphics.Bitmap
 import android.graphics.BitmapFactory
+import android.util.Log
 import androidx.annotation.AnyThread
 import androidx.annotation.VisibleForTesting
 import androidx.annotation.WorkerThread
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.asCoroutineDispatcher
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.sync.Mutex
 import kotlinx.coroutines.sync.withLock
-import mozilla.components.support.ktx.android.graphics.arePixelsAllTheSame
+import org.mozilla.tv.firefox.R
 import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileScreenshotStore.DIR
-import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileScreenshotStore.uuidToFileSystemMutex
+import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileScreenshotStore.THUMBNAIL_DIR
+import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileScreenshotStore.fileSystemMutexes
+import org.mozilla.tv.firefox.utils.StripedMutex
 import java.io.File
+import java.io.IOException
 import java.util.UUID
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+private const val LOGTAG = "PinnedTileScreenshotStore"
 
 /**
  * The format with which to compress on disk. Our goals for storage:
@@ -58,19 +69,43 @@ private val COMPRESSION_FORMAT = Bitmap.CompressFormat.WEBP
  */
 private const val COMPRESSION_QUALITY = 50
 
-private val BITMAP_FACTORY_OPTIONS = BitmapFactory.Options().apply {
-    // When full resolution in memory, 1080p Bitmap takes up ~7.9MiB, no matter how it's been
-    // compressed on disk. To save memory and reduce CPU downscale overhead, we downsample.
-    //
-    // In 1080p, our max resolution, screenshots are 1920x1080px and the tiles are 280x200px
-    // (not dp). We divide the screenshots by 4, 480x270px, which fits in the tiles: these
-    // Bitmaps take up ~0.5MiB in memory.
-    inSampleSize = 4
-}
+/**
+ * The quality argument to [Bitmap.compress] for thumbnails. Thumbnails are shown at their full size,
+ * where the artifacts of [COMPRESSION_QUALITY] are noticeable, and they're small enough that a
+ * higher quality costs little.
+ */
+private const val THUMBNAIL_COMPRESSION_QUALITY = 80
+
+/**
+ * The most screenshots waiting to be encoded: each holds a full resolution Bitmap in memory, ~7.9MiB
+ * at 1080p, so when more are saved the oldest is dropped. Users pin one page at a time so this is
+ * only reached when pinning faster than we can encode, ~2s per screenshot.
+ */
+@VisibleForTesting internal const val MAX_PENDING_SAVES = 3
+
+/**
+ * The number of locks shared between screenshots, see [fileSystemMutexes]: a few times as many as are
+ * typically accessed at once, when the home tiles are loading, so they rarely wait on each other.
+ */
+private const val FILE_SYSTEM_MUTEX_STRIPE_COUNT = 32
+
+/** Screenshots saved before checksums were introduced are checked by decoding them downsampled this much. */
+private const val LEGACY_SCREENSHOT_CHECK_SAMPLE_SIZE = 8
+
+/** Blank screenshots are detected by sampling a grid of this many pixels in each dimension. */
+private const val BLANK_CHECK_GRID_SIZE = 32
 
 /**
  * Storage for webpage screenshots used for the home tiles.
  *
+ * Each screenshot is stored twice: at full resolution, the master, and as a thumbnail scaled down to
+ * the size of a home tile. When full resolution in memory, a 1080p Bitmap takes up ~7.9MiB no matter
+ * how it's been compressed on disk, and decoding it takes much longer than decoding a thumbnail, so
+ * the tiles read thumbnails: the master is only read when a caller needs a bigger image.
+ *
+ * Files are written with [writeChecksummedFile], so the app being killed mid-encode, which is common
+ * under memory pressure, can't leave a truncated screenshot behind: see [scrubAsync].
+ *
  * We use UUIDs as identifiers for screenshots, rather than URLs (a natural choice) because:
  * - URLs can exceed the maximum file name length; UUIDs can't
  * - URLs can contain illegal file name characters; UUID's can't
@@ -78,39 +113,177 @@ private val BITMAP_FACTORY_OPTIONS = BitmapFactory.Options().apply {
  * - The [CustomTilesManager] stores a unique identifier so we rely on it to provide one,
  * pushing the complexity there.
  *
- * This class is thread-safe: see [uuidToFileSystemMutex] javadoc for details.
+ * This class is thread-safe: see [fileSystemMutexes] javadoc for details.
  */
 object PinnedTileScreenshotStore {
 
     @VisibleForTesting const val DIR = "home_screenshots"
+    @VisibleForTesting const val THUMBNAIL_DIR = "home_screenshot_thumbnails"
 
     /**
-     * A map from UUID to Mutex: we have one lock for each screenshot we try to access (by uuid).
+     * The locks for accessing screenshot files, by uuid.
      *
      * This locking is important to ensure the file is completely written before its first read.
      *
      * Sometimes file writes can block for a long time (#610) so it's important we don't lock all
-     * reads and writes on a single write.
+     * reads and writes on a single write. We used to keep one lock for each uuid but they were never
+     * removed, even when their tile was: the locks are striped so their number is fixed. Since
+     * screenshots may share a lock, never hold the lock of one uuid while taking another's.
+     */
+    private val fileSystemMutexes = StripedMutex<UUID>(FILE_SYSTEM_MUTEX_STRIPE_COUNT)
+
+    private class PendingSave(val context: Context, var screenshot: Bitmap) {
+        val completion = CompletableDeferred<Unit>()
+    }
+
+    /**
+     * Screenshots waiting to be encoded, oldest first, at most one per UUID. Guards the encoder state
+     * and metrics below, too.
+     */
+    private val pendingSaves = LinkedHashMap<UUID, PendingSave>()
+    private var isEncoding = false
+    private var metrics = ScreenshotEncoderMetrics()
+
+    /**
+     * Encoding takes seconds and a lot of memory, so screenshots are encoded one at a time on this
+     * dedicated thread rather than on a shared pool.
      */
-    private val uuidToFileSystemMutex = mutableMapOf<UUID, Mutex>()
+    @VisibleForTesting
+    internal var encoderDispatcher: CoroutineDispatcher = Executors.newSingleThreadExecutor { Thread(it, "ScreenshotEncoder") }
+            .asCoroutineDispatcher()
 
-    /** @param uuid a unique identifier for this screenshot. */
+    /** A snapshot of the metrics of the screenshot encoder, e.g. for debugging performance. */
+    val encoderMetrics: ScreenshotEncoderMetrics
+        get() = synchronized(pendingSaves) { metrics.copy(queueDepth = pendingSaves.size) }
+
+    /**
+     * Queues the screenshot to be encoded. If a screenshot with the same uuid is still queued, it is
+     * replaced by this one. If the queue is full, the oldest screenshot is dropped.
+     *
+     * @param uuid a unique identifier for this screenshot.
+     * @return a job that completes when this screenshot has been saved, or won't be.
+     */
     @AnyThread
-    fun saveAsync(context: Context, uuid: UUID, screenshot: Bitmap) = GlobalScope.launch {
+    fun saveAsync(context: Context, uuid: UUID, screenshot: Bitmap): Job = synchronized(pendingSaves) {
+        val pendingSave = pendingSaves[uuid]
+        if (pendingSave != null) {
+            pendingSave.screenshot = screenshot
+            metrics = metrics.copy(coalescedCount = metrics.coalescedCount + 1)
+            return pendingSave.completion
+        }
+
+        if (pendingSaves.size >= MAX_PENDING_SAVES) {
+            val oldestUUID = pendingSaves.keys.first()
+            Log.w(LOGTAG, "Screenshot queue is full: dropping $oldestUUID")
+            pendingSaves.remove(oldestUUID)!!.completion.complete(Unit)
+            metrics = metrics.copy(droppedCount = metrics.droppedCount + 1)
+        }
+
+        val newSave = PendingSave(context, screenshot)
+        pendingSaves[uuid] = newSave
+        if (!isEncoding) {
+            isEncoding = true
+            GlobalScope.launch(encoderDispatcher) { encodePendingSaves() }
+        }
+        newSave.completion
+    }
+
+    private suspend fun encodePendingSaves() {
+        while (true) {
+            val uuid = synchronized(pendingSaves) {
+                val next = pendingSaves.keys.firstOrNull()
+                if (next == null) isEncoding = false
+                next
+            } ?: return
+
+            getMutex(uuid).withLock {
+                // Take the save while locked: it may have been replaced, or removed by removeAsync.
+                val pendingSave = synchronized(pendingSaves) { pendingSaves.remove(uuid) } ?: return@withLock
+                try {
+                    encode(pendingSave.context, uuid, pendingSave.screenshot)
+                } finally {
+                    pendingSave.completion.complete(Unit)
+                }
+            }
+        }
+    }
+
+    @WorkerThread // file access.
+    private fun encode(context: Context, uuid: UUID, screenshot: Bitmap) {
         if (!isScreenshotAcceptableAsHomeTile(screenshot)) {
             // We won't save this image, meaning we'll return null when we try to read it.
             // At the time of writing, this will fall back to placeholders.
-            return@launch
+            synchronized(pendingSaves) { metrics = metrics.copy(blankCount = metrics.blankCount + 1) }
+            return
         }
 
-        getMutex(uuid).withLock {
+        val startNanos = System.nanoTime()
+        try {
             ensureParentDirs(context)
 
-            val screenshotFile = getFileForUUID(context, uuid)
-            screenshotFile.createNewFile()
-            screenshotFile.outputStream().use {
+            // The thumbnail is written first because the home tiles are waiting for it.
+            writeThumbnail(context, uuid, screenshot)
+            PinnedTileBitmapCache.remove(uuid)
+
+            writeChecksummedFile(getFileForUUID(context, uuid)) {
                 screenshot.compress(COMPRESSION_FORMAT, COMPRESSION_QUALITY, it)
             }
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to save screenshot", e)
+        }
+
+        val encodeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)
+        val bytesWritten = getThumbnailFileForUUID(context, uuid).length() + getFileForUUID(context, uuid).length()
+        synchronized(pendingSaves) {
+            metrics = metrics.copy(
+                    encodedCount = metrics.encodedCount + 1,
+                    totalEncodeMillis = metrics.totalEncodeMillis + encodeMillis,
+                    bytesWritten = metrics.bytesWritten + bytesWritten
+            )
+        }
+    }
+
+    /**
+     * Cleans up the screenshot files, e.g. on startup:
+     * - deletes temporary files left by writes interrupted by a crash
+     * - deletes the screenshots of tiles that are no longer pinned, e.g. because the app was killed
+     * before [removeAsync] finished
+     * - deletes screenshots that don't match their checksum: they'd fail to decode, or decode to garbage
+     * - checks the screenshots saved before checksums were, and records their checksums
+     * - creates the thumbnails missing, e.g. for screenshots saved before thumbnails were introduced
+     *
+     * The files are checked once, here, rather than on each [read], which would have to read each
+     * file twice.
+     *
+     * @param uuids the identifiers of the screenshots of the pinned tiles.
+     */
+    @AnyThread
+    fun scrubAsync(context: Context, uuids: Collection<UUID>) = GlobalScope.launch(encoderDispatcher) {
+        // Screenshots saved while we scrub may belong to tiles pinned after uuids was read.
+        val startMillis = System.currentTimeMillis()
+        val pinnedUUIDs = uuids.toSet()
+
+        val storedUUIDs = listOf(DIR, THUMBNAIL_DIR)
+                .flatMap { File(context.filesDir, it).listFiles()?.asList() ?: emptyList() }
+                .mapNotNull { getChecksummedFileName(it).toUUIDOrNull() }
+                .toSet()
+
+        (storedUUIDs + pinnedUUIDs).forEach { uuid ->
+            getMutex(uuid).withLock {
+                val files = listOf(getThumbnailFileForUUID(context, uuid), getFileForUUID(context, uuid))
+                files.forEach { file ->
+                    getTempFile(file).delete()
+                    getTempFile(getChecksumFile(file)).delete()
+
+                    val isOrphaned = uuid !in pinnedUUIDs && file.lastModified() < startMillis
+                    if (isOrphaned || !file.exists() || !isIntact(file)) {
+                        deleteChecksummedFile(file)
+                        PinnedTileBitmapCache.remove(uuid)
+                    }
+                }
+
+                if (uuid in pinnedUUIDs) createMissingThumbnail(context, uuid)
+            }
         }
     }
 
@@ -118,44 +291,240 @@ object PinnedTileScreenshotStore {
     @AnyThread
     fun removeAsync(context: Context, uuid: UUID) = GlobalScope.launch {
         getMutex(uuid).withLock {
-            getFileForUUID(context, uuid).delete()
+            synchronized(pendingSaves) { pendingSaves.remove(uuid) }?.completion?.complete(Unit)
+            PinnedTileBitmapCache.remove(uuid)
+            deleteChecksummedFile(getThumbnailFileForUUID(context, uuid))
+            deleteChecksummedFile(getFileForUUID(context, uuid))
         }
     }
 
     /**
      * A blocking function to read a bitmap from the store.
      *
+     * The thumbnail is returned if it's at least as big as the requested size: it's shared through
+     * [PinnedTileBitmapCache], so callers must not modify or recycle it. Otherwise the master is
+     * downsampled by the largest power of two that keeps it at least as big as the requested size.
+     *
      * @param uuid unique identifier for this screenshot.
+     * @param minWidthPx the width the returned bitmap should have at least, if possible.
+     * @param minHeightPx the height the returned bitmap should have at least, if possible.
+     * @param reusableBitmap a bitmap from [PinnedTileBitmapCache.takeReusableBitmap] to decode the
+     * thumbnail into: it's returned to the cache if it can't be used, including if this is cancelled.
      * @return The decoded [Bitmap], or null if the file DNE or the bitmap could not be decoded.
      */
     @WorkerThread // file access.
-    suspend fun read(context: Context, uuid: UUID) = getMutex(uuid).withLock { // TODO: consider timeout: #610
-        val file = getFileForUUID(context, uuid)
-        if (!file.exists()) {
-            null
-        } else {
-            file.inputStream().use {
-                BitmapFactory.decodeStream(it, null, BITMAP_FACTORY_OPTIONS)
+    suspend fun read(
+        context: Context,
+        uuid: UUID,
+        minWidthPx: Int = getTileWidthPx(context),
+        minHeightPx: Int = getTileHeightPx(context),
+        reusableBitmap: Bitmap? = null
+    ): Bitmap? {
+        var isReusableBitmapDecodedInto = false
+        try {
+            val cachedBitmap = PinnedTileBitmapCache.get(uuid)
+            if (cachedBitmap != null && cachedBitmap.width >= minWidthPx && cachedBitmap.height >= minHeightPx) {
+                return cachedBitmap
+            }
+
+            // Waiting for the lock may be cancelled: the reusable bitmap is returned in finally.
+            return getMutex(uuid).withLock { // TODO: consider timeout: #610
+                val thumbnailFile = getThumbnailFileForUUID(context, uuid)
+                val file = getFileForUUID(context, uuid)
+                val (thumbnailWidthPx, thumbnailHeightPx) = decodeSize(thumbnailFile)
+                when {
+                    thumbnailFile.exists() && thumbnailWidthPx >= minWidthPx && thumbnailHeightPx >= minHeightPx -> {
+                        isReusableBitmapDecodedInto = true
+                        decodeThumbnail(thumbnailFile, reusableBitmap)?.also { PinnedTileBitmapCache.put(uuid, it) }
+                    }
+                    file.exists() -> decodeSampled(file, minWidthPx, minHeightPx)
+                    else -> null
+                }
             }
+        } finally {
+            if (!isReusableBitmapDecodedInto) reusableBitmap?.let { PinnedTileBitmapCache.offerReusableBitmap(it) }
         }
     }
 
     internal fun getFileForUUID(context: Context, uuid: UUID) = File(context.filesDir, getPathForUUID(uuid))
 
-    private fun getMutex(uuid: UUID) = synchronized(uuidToFileSystemMutex) {
-        uuidToFileSystemMutex.getOrPut(uuid) { Mutex() }
-    }
+    internal fun getThumbnailFileForUUID(context: Context, uuid: UUID) = File(context.filesDir, getThumbnailPathForUUID(uuid))
+
+    private fun getMutex(uuid: UUID) = fileSystemMutexes[uuid]
 }
 
-private fun ensureParentDirs(context: Context) { File(context.filesDir, DIR).mkdirs() }
+private fun ensureParentDirs(context: Context) {
+    File(context.filesDir, DIR).mkdirs()
+    File(context.filesDir, THUMBNAIL_DIR).mkdirs()
+}
 private fun getPathForUUID(uuid: UUID) = "$DIR/$uuid"
+private fun getThumbnailPathForUUID(uuid: UUID) = "$THUMBNAIL_DIR/$uuid"
+
+private fun getTileWidthPx(context: Context) = context.resources.getDimensionPixelSize(R.dimen.home_tile_width)
+private fun getTileHeightPx(context: Context) = context.resources.getDimensionPixelSize(R.dimen.home_tile_height)
+
+@WorkerThread // file access.
+private fun writeThumbnail(context: Context, uuid: UUID, screenshot: Bitmap) {
+    val (widthPx, heightPx) = getThumbnailSize(context, screenshot.width to screenshot.height)
+    val thumbnail = Bitmap.createScaledBitmap(screenshot, widthPx, heightPx, true)
+
+    try {
+        writeChecksummedFile(PinnedTileScreenshotStore.getThumbnailFileForUUID(context, uuid)) {
+            thumbnail.compress(COMPRESSION_FORMAT, THUMBNAIL_COMPRESSION_QUALITY, it)
+        }
+    } finally {
+        if (thumbnail !== screenshot) thumbnail.recycle()
+    }
+}
+
+@WorkerThread // file access.
+private fun createMissingThumbnail(context: Context, uuid: UUID) {
+    val screenshotFile = PinnedTileScreenshotStore.getFileForUUID(context, uuid)
+    if (!screenshotFile.exists() || PinnedTileScreenshotStore.getThumbnailFileForUUID(context, uuid).exists()) return
 
-private fun isScreenshotAcceptableAsHomeTile(screenshot: Bitmap): Boolean {
+    val (widthPx, heightPx) = getThumbnailSize(context, decodeSize(screenshotFile))
+    val screenshot = decodeSampled(screenshotFile, widthPx, heightPx) ?: return
+    try {
+        ensureParentDirs(context)
+        writeThumbnail(context, uuid, screenshot)
+    } catch (e: IOException) {
+        Log.w(LOGTAG, "Unable to save thumbnail", e)
+    } finally {
+        screenshot.recycle()
+    }
+}
+
+/**
+ * @return true if the file matches its checksum or, if it was saved before checksums were, if it
+ * can be decoded: its checksum is then recorded so it's only decoded once.
+ */
+@WorkerThread // file access.
+private fun isIntact(file: File): Boolean {
+    matchesChecksum(file)?.let { return it }
+
+    // Decoding a fraction of the pixels still reads the whole file, at a fraction of the memory.
+    val options = BitmapFactory.Options().apply { inSampleSize = LEGACY_SCREENSHOT_CHECK_SAMPLE_SIZE }
+    val bitmap = file.inputStream().use { BitmapFactory.decodeStream(it, null, options) } ?: return false
+    bitmap.recycle()
+
+    try {
+        writeChecksumOfExistingFile(file)
+    } catch (e: IOException) {
+        Log.w(LOGTAG, "Unable to save screenshot checksum", e)
+    }
+    return true
+}
+
+private fun String.toUUIDOrNull(): UUID? = try {
+    UUID.fromString(this)
+} catch (e: IllegalArgumentException) {
+    null
+}
+
+/**
+ * @return the size of the smallest thumbnail of a screenshot with the given size that covers a
+ * home tile; the screenshot's size if it's smaller than the tile.
+ */
+private fun getThumbnailSize(context: Context, screenshotSize: Pair<Int, Int>): Pair<Int, Int> {
+    val (widthPx, heightPx) = screenshotSize
+    val scale = Math.min(1f, Math.max(
+            getTileWidthPx(context).toFloat() / widthPx,
+            getTileHeightPx(context).toFloat() / heightPx))
+    return Math.max(1, Math.round(widthPx * scale)) to Math.max(1, Math.round(heightPx * scale))
+}
+
+/** @return the width and height of the image in the file, or zeroes if it can't be decoded. */
+@WorkerThread // file access.
+private fun decodeSize(file: File): Pair<Int, Int> {
+    if (!file.exists()) return 0 to 0
+
+    val options = BitmapFactory.Options().apply { inJustDecodeBounds = true }
+    file.inputStream().use { BitmapFactory.decodeStream(it, null, options) }
+    return Math.max(0, options.outWidth) to Math.max(0, options.outHeight)
+}
+
+/**
+ * Decodes the image in the file, downsampled by the largest power of two that keeps it at least as
+ * big as the given size: pass zeroes to decode it at full resolution.
+ */
+@WorkerThread // file access.
+private fun decodeSampled(file: File, minWidthPx: Int, minHeightPx: Int): Bitmap? {
+    val (widthPx, heightPx) = decodeSize(file)
+    var sampleSize = 1
+    if (minWidthPx > 0 && minHeightPx > 0) {
+        while (widthPx / (sampleSize * 2) >= minWidthPx && heightPx / (sampleSize * 2) >= minHeightPx) {
+            sampleSize *= 2
+        }
+    }
+
+    val options = BitmapFactory.Options().apply { inSampleSize = sampleSize }
+    return file.inputStream().use { BitmapFactory.decodeStream(it, null, options) }
+}
+
+/**
+ * Decodes a thumbnail into a mutable bitmap, so it can be reused once it's evicted from
+ * [PinnedTileBitmapCache]: into [reusableBitmap] if it's big enough.
+ */
+@WorkerThread // file access.
+private fun decodeThumbnail(file: File, reusableBitmap: Bitmap?): Bitmap? {
+    val options = BitmapFactory.Options().apply {
+        inMutable = true
+        inBitmap = reusableBitmap
+    }
+
+    return try {
+        file.inputStream().use { BitmapFactory.decodeStream(it, null, options) }
+    } catch (e: IllegalArgumentException) {
+        // The reusable bitmap is too small for this thumbnail: drop it so it isn't tried again.
+        if (reusableBitmap == null) throw e
+        options.inBitmap = null
+        file.inputStream().use { BitmapFactory.decodeStream(it, null, options) }
+    }
+}
+
+/**
+ * Encoder counters since the app started.
+ *
+ * @property queueDepth the screenshots waiting to be encoded.
+ * @property encodedCount the screenshots encoded and written.
+ * @property coalescedCount the screenshots replaced by a newer screenshot for the same tile while queued.
+ * @property droppedCount the screenshots dropped because the queue was full.
+ * @property blankCount the screenshots not saved because they were blank.
+ * @property totalEncodeMillis the time spent encoding and writing screenshots.
+ * @property bytesWritten the size of the screenshots and thumbnails written.
+ */
+data class ScreenshotEncoderMetrics(
+    val queueDepth: Int = 0,
+    val encodedCount: Int = 0,
+    val coalescedCount: Int = 0,
+    val droppedCount: Int = 0,
+    val blankCount: Int = 0,
+    val totalEncodeMillis: Long = 0,
+    val bytesWritten: Long = 0
+)
+
+@VisibleForTesting
+internal fun isScreenshotAcceptableAsHomeTile(screenshot: Bitmap): Boolean {
     // Some websites get blank screenshots: vimeo videos are all black and Youtube videos
     // are all transparent. We don't want these.
     //
     // It'd be more accurate to add some delta when comparing pixels, but that adds
     // complexity that we we don't need for any screenshots we've already seen - Bitmap screenshots
     // don't have compression rounding errors - and may accidentally remove valid images.
-    return !screenshot.arePixelsAllTheSame()
+    //
+    // Comparing every pixel of a 1080p screenshot reads ~2M pixels, so we compare a grid of them,
+    // including the edges: blank pages are uniform so a sample finds any content worth showing.
+    val columns = Math.min(BLANK_CHECK_GRID_SIZE, screenshot.width)
+    val rows = Math.min(BLANK_CHECK_GRID_SIZE, screenshot.height)
+    if (columns == 0 || rows == 0) return false
+
+    val firstPixel = screenshot.getPixel(0, 0)
+    for (row in 0 until rows) {
+        val y = if (rows == 1) 0 else row * (screenshot.height - 1) / (rows - 1)
+        for (column in 0 until columns) {
+            val x = if (columns == 1) 0 else column * (screenshot.width - 1) / (columns - 1)
+            if (screenshot.getPixel(x, y) != firstPixel) return true
+        }
+    }
+    return false
 }
@@ -10,6 +10,7 @@ import mozilla.components.service.fretboard.ExperimentDescriptor
 import mozilla.components.service.fretboard.Fretboard
 import org.mozilla.tv.firefox.R
 import org.mozilla.tv.firefox.components.locale.LocaleManager
+import org.mozilla.tv.firefox.utils.BuildConstants
 
 /**
  * [ExperimentsProvider] checks for experiment branch from [Fretboard] to provide its respective content.
@@ -87,6 +88,15 @@ class ExperimentsProvider(private val fretboard: Fretboard, private val context:
         return true
     }
 
+    /**
+     * This is not an experiment yet: the magnetic cursor, which is drawn to clickable elements, is
+     * only enabled in dev builds until an experiment is filed for it, because it injects JavaScript
+     * into every page.
+     */
+    fun shouldUseMagneticCursor(): Boolean {
+        return BuildConstants.isDevBuild
+    }
+
     /** This is not an experiment: see [ExperimentConfig.MP4_VIDEO_WORKAROUND] for details. */
     fun shouldUseMp4VideoWorkaround(): Boolean {
         val expDescriptor = checkBranchVariants(ExperimentConfig.MP4_VIDEO_WORKAROUND)
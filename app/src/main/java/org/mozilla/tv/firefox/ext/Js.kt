@@ -5,6 +5,8 @@
 package org.mozilla.tv.firefox.ext
 
 import mozilla.components.browser.session.Session
+import org.mozilla.tv.firefox.webrender.cursor.HIT_TARGETS_JS_INTERFACE_IDENTIFIER
+import org.mozilla.tv.firefox.webrender.cursor.HitTargets
 
 object Js {
     const val CACHE_VAR = "_firefoxForFireTvPreviouslyFocusedElement"
@@ -248,6 +250,129 @@ var _firefoxTV_isPlaybackStateObserverLoaded;
         onDOMChangedForVideos();
     }
 })();
+""".trimIndent()
+
+    /**
+     * This script sends the geometry of the clickable elements near the viewport to Java, for the
+     * magnetic cursor (see [HitTargets]):
+     * - The rects are sent in page px, including the scroll position, so when the page scrolls we
+     *   only send its new scroll position, at most once per animation frame. Page px are screen px
+     *   at the page's position: they include the zoom of pages zoomed out to fit the screen.
+     * - The rects are collected again, at most a few times a second, when a mutation observer sees
+     *   the DOM change, the page is zoomed or it scrolls away from where they were collected.
+     * - It prevents itself from being injected more than once per page.
+     *
+     * Elements with fixed positions move with the page in Java until the rects are collected again.
+     *
+     * Note that `//` style comments are not supported in `evalJS`.
+     */
+    val JS_OBSERVE_HIT_TARGETS = """
+var $HIT_TARGETS_JS_INTERFACE_IDENTIFIER;
+var _firefoxTV_isHitTargetObserverLoaded;
+(function () {
+    const HIT_TARGET_SELECTOR = 'a[href], button, input, select, textarea, summary, [onclick], ' +
+            '[role="button"], [role="link"], [tabindex]:not([tabindex="-1"])';
+    const MAX_TARGET_COUNT = 500;
+    const MILLIS_BETWEEN_COLLECTIONS = 250;
+
+    const javaInterface = $HIT_TARGETS_JS_INTERFACE_IDENTIFIER;
+    if (!javaInterface) {
+        console.error('Cannot sync hit targets to Java: JavascriptInterface is not found.');
+        return;
+    }
+
+    /* Sometimes the script is evaluated more than once per page:
+     * only inject code with side effects once. */
+    if (_firefoxTV_isHitTargetObserverLoaded) { return; }
+    _firefoxTV_isHitTargetObserverLoaded = true;
+
+    let collectedAtScrollX = 0;
+    let collectedAtScrollY = 0;
+    let collectionTimeoutID = null;
+    let isScrollSyncScheduled = false;
+
+    /* Screen px per CSS px. Pages wider than the screen are zoomed out to fit it (see
+     * loadWithOverviewMode), which devicePixelRatio doesn't include. */
+    function getScreenPxPerCssPx() {
+        const scale = window.visualViewport ? window.visualViewport.scale : 1;
+        return window.devicePixelRatio * scale;
+    }
+
+    /* The page offset of the part of the page on screen, in CSS px: when zoomed in, it can differ
+     * from window.scrollX and window.scrollY. */
+    function getVisualScrollX() {
+        return window.visualViewport ? window.visualViewport.pageLeft : window.scrollX;
+    }
+
+    function getVisualScrollY() {
+        return window.visualViewport ? window.visualViewport.pageTop : window.scrollY;
+    }
+
+    /* Collects the elements in the viewport and up to a viewport away from it, so small scrolls
+     * don't require collecting them again. */
+    function collectHitTargets() {
+        collectionTimeoutID = null;
+        const ratio = getScreenPxPerCssPx();
+        const width = window.innerWidth;
+        const height = window.innerHeight;
+        collectedAtScrollX = window.scrollX;
+        collectedAtScrollY = window.scrollY;
+
+        const rects = [];
+        const elements = document.querySelectorAll(HIT_TARGET_SELECTOR);
+        for (let i = 0; i < elements.length && rects.length < MAX_TARGET_COUNT * 4; i++) {
+            const rect = elements[i].getBoundingClientRect();
+            if (rect.width === 0 || rect.height === 0 ||
+                    rect.right < -width || rect.left > 2 * width ||
+                    rect.bottom < -height || rect.top > 2 * height) {
+                continue;
+            }
+            rects.push(Math.round((rect.left + collectedAtScrollX) * ratio),
+                    Math.round((rect.top + collectedAtScrollY) * ratio),
+                    Math.round((rect.right + collectedAtScrollX) * ratio),
+                    Math.round((rect.bottom + collectedAtScrollY) * ratio));
+        }
+
+        javaInterface.syncHitTargets(rects.join(','),
+                Math.round(getVisualScrollX() * ratio), Math.round(getVisualScrollY() * ratio));
+    }
+
+    function scheduleCollection() {
+        if (collectionTimeoutID === null) {
+            collectionTimeoutID = setTimeout(collectHitTargets, MILLIS_BETWEEN_COLLECTIONS);
+        }
+    }
+
+    function syncScrollPosition() {
+        isScrollSyncScheduled = false;
+        if (Math.abs(window.scrollX - collectedAtScrollX) > window.innerWidth / 2 ||
+                Math.abs(window.scrollY - collectedAtScrollY) > window.innerHeight / 2) {
+            scheduleCollection();
+        }
+
+        const ratio = getScreenPxPerCssPx();
+        javaInterface.syncScrollPosition(Math.round(getVisualScrollX() * ratio), Math.round(getVisualScrollY() * ratio));
+    }
+
+    function scheduleScrollSync() {
+        if (isScrollSyncScheduled) { return; }
+        isScrollSyncScheduled = true;
+        window.requestAnimationFrame(syncScrollPosition);
+    }
+
+    window.addEventListener('scroll', scheduleScrollSync, {passive: true});
+    window.addEventListener('resize', scheduleCollection);
+    /* The visual viewport scrolls and resizes without the window when the page is zoomed. */
+    if (window.visualViewport) {
+        window.visualViewport.addEventListener('scroll', scheduleScrollSync, {passive: true});
+        window.visualViewport.addEventListener('resize', scheduleCollection);
+    }
+
+    new MutationObserver(scheduleCollection).observe(document, {subtree: true, childList: true, attributes: true,
+            attributeFilter: ['class', 'style', 'hidden', 'href', 'role', 'tabindex']});
+
+    collectHitTargets();
+})();
 """.trimIndent()
 
     /**
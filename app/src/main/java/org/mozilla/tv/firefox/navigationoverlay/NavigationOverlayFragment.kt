@@ -165,7 +165,8 @@ class NavigationOverlayFragment : Fragment() {
             toolbarViewModel,
             ::exitFirefox,
             onNavigationEvent,
-            serviceLocator.experimentsProvider
+            serviceLocator.experimentsProvider,
+            uiLifecycleCancelJob
         ).apply {
             onCreateView(view)
         }
@@ -238,6 +239,9 @@ class NavigationOverlayFragment : Fragment() {
                 .forEach { compositeDisposable.add(it) }
         observeToolbarFocusability()
                 .addTo(compositeDisposable)
+        // The channels share their tile pool: tiles pre-inflated here are used by all of them.
+        pinnedTileChannel.preinflateTiles()
+                .addTo(compositeDisposable)
         toolbarUiController.observeToolbarState(rootView!!, fragmentManager!!)
             .forEach { compositeDisposable.add(it) }
 
@@ -329,7 +333,7 @@ class NavigationOverlayFragment : Fragment() {
     private fun observePinnedTiles(): Disposable {
         return navigationOverlayViewModel.pinnedTiles.subscribe {
             pinnedTileChannel.setTitle(it.title)
-            pinnedTileChannel.setContents(it.tileList)
+            pinnedTileChannel.setContents(it.tileList, it.tileChanges)
         }
     }
 
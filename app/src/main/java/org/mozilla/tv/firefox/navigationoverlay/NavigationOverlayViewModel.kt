@@ -37,7 +37,7 @@ class NavigationOverlayViewModel(
 ) : ViewModel() {
 
     val pinnedTiles: Observable<ChannelDetails> = channelRepo.getPinnedTiles()
-        .map { ChannelDetails(title = channelTitles.pinned, tileList = it) }
+        .map { ChannelDetails(title = channelTitles.pinned, tileList = it.tiles, tileChanges = it.changes) }
 
     val newsChannel: Observable<ChannelDetails> = channelRepo.getNewsTiles()
         .map { ChannelDetails(title = channelTitles.newsAndPolitics, tileList = it) }
@@ -22,9 +22,10 @@ import kotlinx.android.synthetic.main.fragment_navigation_overlay_top_nav.view.n
 import kotlinx.android.synthetic.main.fragment_navigation_overlay_top_nav.view.pinButton
 import kotlinx.android.synthetic.main.fragment_navigation_overlay_top_nav.view.turboButton
 import kotlinx.android.synthetic.main.tooltip.view.tooltip
-import mozilla.components.browser.domains.autocomplete.ShippedDomainsProvider
+import kotlinx.coroutines.Job
 import mozilla.components.support.ktx.android.view.hideKeyboard
 import org.mozilla.tv.firefox.R
+import org.mozilla.tv.firefox.autocomplete.AsyncAutocompleteFilterListener
 import org.mozilla.tv.firefox.experiments.ExperimentsProvider
 import org.mozilla.tv.firefox.ext.serviceLocator
 import org.mozilla.tv.firefox.utils.URLs
@@ -43,7 +44,8 @@ class ToolbarUiController(
     private val toolbarViewModel: ToolbarViewModel,
     private val exitFirefox: () -> Unit,
     private val onNavigationEvent: (NavigationEvent, String?, InlineAutocompleteEditText.AutocompleteResult?) -> Unit,
-    private val experimentsProvider: ExperimentsProvider
+    private val experimentsProvider: ExperimentsProvider,
+    private val uiLifecycleCancelJob: Job
 ) {
 
     private var hasUserChangedURLSinceEditTextFocused = false
@@ -110,16 +112,7 @@ class ToolbarUiController(
             }
         }
         this.movementMethod = IgnoreFocusMovementMethod()
-        val autocompleteProvider = ShippedDomainsProvider().apply {
-            initialize(
-                    context = context
-            )
-        }
-        setOnFilterListener { searchText, view ->
-            val result = autocompleteProvider.getAutocompleteSuggestion(searchText)
-            if (result != null)
-                view?.onAutocomplete(InlineAutocompleteEditText.AutocompleteResult(result.text, result.source, result.totalItems))
-        }
+        setOnFilterListener(AsyncAutocompleteFilterListener(context.serviceLocator.autocompleteEngine, uiLifecycleCancelJob))
 
         setOnUserInputListener { hasUserChangedURLSinceEditTextFocused = true }
         setOnFocusChangeListener { _, hasFocus -> if (!hasFocus) hasUserChangedURLSinceEditTextFocused = false }
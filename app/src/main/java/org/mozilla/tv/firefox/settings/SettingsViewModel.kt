@@ -4,13 +4,15 @@ import androidx.lifecycle.LiveData
 import androidx.lifecycle.MutableLiveData
 import androidx.lifecycle.ViewModel
 import mozilla.components.support.base.observer.Consumable
+import org.mozilla.tv.firefox.autocomplete.FrecencyHistoryStore
 import org.mozilla.tv.firefox.session.SessionRepo
 import org.mozilla.tv.firefox.telemetry.TelemetryIntegration
 import org.mozilla.tv.firefox.webrender.EngineViewCache
 
 class SettingsViewModel(
     private val settingsRepo: SettingsRepo,
-    private val sessionRepo: SessionRepo
+    private val sessionRepo: SessionRepo,
+    private val frecencyHistoryStore: FrecencyHistoryStore
 ) : ViewModel() {
     private var _events = MutableLiveData<Consumable<SettingsFragment.Action>>()
 
@@ -24,6 +26,7 @@ class SettingsViewModel(
     fun clearBrowsingData(engineViewCache: EngineViewCache) {
         TelemetryIntegration.INSTANCE.clearDataEvent()
         sessionRepo.clearBrowsingData(engineViewCache)
+        frecencyHistoryStore.clear()
         _events.value = Consumable.from(SettingsFragment.Action.SESSION_CLEARED)
     }
 }
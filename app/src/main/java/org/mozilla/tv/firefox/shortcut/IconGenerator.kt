@@ -9,10 +9,10 @@ import android.graphics.Bitmap
 import android.graphics.BitmapFactory
 import android.graphics.Canvas
 import android.graphics.Color
-import android.graphics.Paint
 import android.net.Uri
 import android.util.TypedValue
 import org.mozilla.tv.firefox.R
+import org.mozilla.tv.firefox.utils.GlyphCache
 import org.mozilla.tv.firefox.utils.UrlUtils
 
 class IconGenerator {
@@ -34,23 +34,11 @@ class IconGenerator {
         }
 
         private fun drawCharacterOnBitmap(context: Context, character: Char, bitmap: Bitmap): Bitmap {
-            val canvas = Canvas(bitmap)
-
-            val paint = Paint()
-
             val textSize = TypedValue.applyDimension(
                     TypedValue.COMPLEX_UNIT_DIP, TEXT_SIZE_DP, context.resources.displayMetrics)
 
-            paint.color = Color.WHITE
-            paint.textAlign = Paint.Align.CENTER
-            paint.textSize = textSize
-            paint.isAntiAlias = true
-
-            canvas.drawText(character.toString(),
-                    canvas.width / 2.0f,
-                    canvas.height / 2.0f - (paint.descent() + paint.ascent()) / 2.0f,
-                    paint)
-
+            // The glyphs are shared with the pinned tile placeholders.
+            GlyphCache.drawCentered(Canvas(bitmap), character, textSize, Color.WHITE)
             return bitmap
         }
 
@@ -5,14 +5,43 @@
 package org.mozilla.tv.firefox.utils
 
 import android.app.Application
+import android.util.LruCache
 import java.net.URI
 
+/**
+ * Enough for every custom pinned tile title of a heavy user, plus some headroom: each entry is a
+ * short String.
+ */
+private const val CACHE_SIZE = 256
+
 /**
  * Wraps an instance of [Application]. We then store this class put this in the service locator,
  * allowing us to keep context out of ViewModels
+ *
+ * Results are memoized: [FormattedDomain.format] only depends on the host of the URI and the
+ * public suffix list, and the tile list formats the same hosts every time it's emitted.
  */
 class FormattedDomainWrapper(private val application: Application) {
 
-    fun format(uri: URI, shouldIncludePublicSuffix: Boolean, subdomainCount: Int) =
-        FormattedDomain.format(application, uri, shouldIncludePublicSuffix, subdomainCount)
+    private data class Key(val host: String, val shouldIncludePublicSuffix: Boolean, val subdomainCount: Int)
+
+    private val cache = LruCache<Key, String>(CACHE_SIZE)
+
+    val cacheHitCount: Int get() = cache.hitCount()
+    val cacheMissCount: Int get() = cache.missCount()
+
+    fun format(uri: URI, shouldIncludePublicSuffix: Boolean, subdomainCount: Int): String {
+        val host = uri.host ?: return FormattedDomain.format(application, uri, shouldIncludePublicSuffix, subdomainCount)
+
+        val key = Key(host, shouldIncludePublicSuffix, subdomainCount)
+        return cache.get(key) ?: FormattedDomain.format(application, uri, shouldIncludePublicSuffix, subdomainCount).also {
+            cache.put(key, it)
+        }
+    }
+
+    /**
+     * Clears memoized results. The public suffix list is compiled into the APK so it can't change
+     * while we're running: call this if that ever changes.
+     */
+    fun invalidate() = cache.evictAll()
 }
@@ -0,0 +1,71 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.util.LruCache
+import androidx.annotation.AnyThread
+
+/**
+ * Enough for every letter and digit at the few text sizes we draw, plus some non-ASCII characters:
+ * each glyph is a small ALPHA_8 bitmap, ~2KiB at 22dp.
+ */
+private const val CACHE_SIZE = 128
+
+/**
+ * A cache of rendered characters, e.g. the representative characters of URLs drawn on placeholder
+ * tiles and launcher icons, so each is only rendered once.
+ *
+ * Glyphs are cached as alpha masks: the color is given when they're drawn.
+ *
+ * This class is thread-safe.
+ */
+object GlyphCache {
+
+    private data class Key(val character: Char, val textSizePx: Float)
+
+    private val cache = LruCache<Key, Bitmap>(CACHE_SIZE)
+
+    /** Paint for drawing the glyphs: it colors their alpha masks. Guarded by itself. */
+    private val drawPaint = Paint(Paint.FILTER_BITMAP_FLAG)
+
+    /**
+     * Draws the character centered on the canvas, as it would be drawn with
+     * [Paint.Align.CENTER] and vertically centered between its ascent and descent.
+     */
+    @AnyThread
+    fun drawCentered(canvas: Canvas, character: Char, textSizePx: Float, color: Int) {
+        val glyph = getGlyph(character, textSizePx)
+        synchronized(drawPaint) {
+            drawPaint.color = color
+            canvas.drawBitmap(glyph,
+                    (canvas.width - glyph.width) / 2.0f,
+                    (canvas.height - glyph.height) / 2.0f,
+                    drawPaint)
+        }
+    }
+
+    private fun getGlyph(character: Char, textSizePx: Float): Bitmap {
+        val key = Key(character, textSizePx)
+        return cache.get(key) ?: renderGlyph(character, textSizePx).also { cache.put(key, it) }
+    }
+
+    private fun renderGlyph(character: Char, textSizePx: Float): Bitmap {
+        val paint = Paint().apply {
+            textAlign = Paint.Align.CENTER
+            textSize = textSizePx
+            isAntiAlias = true
+        }
+
+        val text = character.toString()
+        val width = Math.max(1, Math.ceil(paint.measureText(text).toDouble()).toInt())
+        val height = Math.max(1, Math.ceil((paint.descent() - paint.ascent()).toDouble()).toInt())
+        val glyph = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8)
+        Canvas(glyph).drawText(text, width / 2.0f, -paint.ascent(), paint)
+        return glyph
+    }
+}
@@ -44,7 +44,10 @@ class ObservableMutableSet<T> private constructor(
     override fun clear() = wrappedSet.clear().alsoNotifyObservers()
 
     private fun <T> T.alsoNotifyObservers(): T {
-        observers.forEach { it.invoke(this@ObservableMutableSet) }
+        // Indexed to avoid allocating an iterator: this may be called many times a second.
+        for (i in observers.indices) {
+            observers[i].invoke(this@ObservableMutableSet)
+        }
         return this@alsoNotifyObservers
     }
 
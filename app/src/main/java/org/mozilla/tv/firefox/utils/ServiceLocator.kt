@@ -14,6 +14,8 @@ import mozilla.components.support.base.observer.Consumable
 import org.mozilla.tv.firefox.ScreenController
 import org.mozilla.tv.firefox.ValidatedIntentData
 import org.mozilla.tv.firefox.architecture.ViewModelFactory
+import org.mozilla.tv.firefox.autocomplete.AutocompleteEngine
+import org.mozilla.tv.firefox.autocomplete.FrecencyHistoryStore
 import org.mozilla.tv.firefox.channels.ChannelRepo
 import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileImageUtilWrapper
 import org.mozilla.tv.firefox.channels.pinnedtile.PinnedTileRepo
@@ -83,6 +85,8 @@ open class ServiceLocator(val app: Application) {
     val fxaLoginUseCase by lazy { FxaLoginUseCase(fxaRepo, sessionRepo, screenController) }
     val admIntegration by lazy { ADMIntegration(app) }
     val deviceInfo by lazy { DeviceInfo() }
+    val frecencyHistoryStore by lazy { FrecencyHistoryStore.create(app, sessionRepo) }
+    val autocompleteEngine by lazy { AutocompleteEngine.create(app, pinnedTileRepo, frecencyHistoryStore) }
 
     // These open vals are overridden in testing
     open val frameworkRepo = FrameworkRepo.newInstanceAndInit(app.getAccessibilityManager())
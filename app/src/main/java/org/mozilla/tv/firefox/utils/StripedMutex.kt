@@ -0,0 +1,37 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils
+
+import kotlinx.coroutines.sync.Mutex
+
+/**
+ * A fixed set of [Mutex]es shared between keys by hash, for when there are too many keys, or keys
+ * come and go too often, to keep one lock for each.
+ *
+ * The same key always gets the same lock, so holding it excludes everyone else accessing that key.
+ * Different keys may share a lock, so:
+ * - it's possible to wait on an unrelated key: more stripes make that less likely.
+ * - the locks aren't reentrant: never lock a key while holding the lock of another key.
+ *
+ * This class is thread-safe and never allocates after construction.
+ */
+class StripedMutex<in K>(stripeCount: Int) {
+
+    init {
+        require(stripeCount > 0 && stripeCount and (stripeCount - 1) == 0) {
+            "stripeCount must be a power of two: $stripeCount"
+        }
+    }
+
+    private val mutexes = Array(stripeCount) { Mutex() }
+
+    operator fun get(key: K): Mutex = mutexes[indexFor(key)]
+
+    private fun indexFor(key: K): Int {
+        // Spread the hash, as HashMap does, so keys that only differ in their high bits don't collide.
+        val hash = key.hashCode()
+        return (hash xor (hash ushr 16)) and (mutexes.size - 1)
+    }
+}
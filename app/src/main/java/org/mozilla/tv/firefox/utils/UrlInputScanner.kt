@@ -0,0 +1,172 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils
+
+private const val HTTP_PREFIX = "http://"
+private const val HTTPS_PREFIX = "https://"
+
+// States for recognizing an IP literal host while scanning.
+private const val IP_V4 = 0
+private const val IP_V6 = 1
+private const val IP_V6_CLOSED = 2
+private const val IP_FOUND = 3
+private const val IP_NOT_FOUND = 4
+
+/**
+ * Classifies and normalizes user input, e.g. from the URL bar, in a single pass without allocating
+ * intermediate Strings, Uris or regexes. This backs [UrlUtils.isUrl] and [UrlUtils.normalize] and
+ * must keep their behavior:
+ * - Input is trimmed of leading and trailing characters <= ' ', like [String.trim].
+ * - Input containing a space is a search query. Otherwise, it's a URL if it contains '.' or ':'.
+ * - Input has a scheme if it contains ':' after its first character, like [android.net.Uri.getScheme].
+ * Input without a scheme is normalized by prefixing it with "http://".
+ */
+object UrlInputScanner {
+
+    enum class Kind {
+        SEARCH_QUERY,
+        URL,
+        /** A URL whose host is an IPv4 address or a bracketed IPv6 address, e.g. "192.168.0.1:8080/". */
+        IP_LITERAL
+    }
+
+    @JvmStatic
+    fun classify(input: CharSequence): Kind {
+        val start = trimmedStart(input)
+        val end = trimmedEnd(input, start)
+
+        var hasDotOrColon = false
+
+        var hostStart = start
+        if (input.regionMatches(start, end, HTTP_PREFIX)) {
+            hostStart += HTTP_PREFIX.length
+        } else if (input.regionMatches(start, end, HTTPS_PREFIX)) {
+            hostStart += HTTPS_PREFIX.length
+        }
+
+        var ipState = if (hostStart < end && input[hostStart] == '[') IP_V6 else IP_V4
+        var ipV4Dots = 0
+        var ipV4OctetDigits = 0
+        var ipV4OctetValue = 0
+        var ipV6HasColon = false
+
+        for (i in start until end) {
+            val c = input[i]
+            when (c) {
+                ' ' -> return Kind.SEARCH_QUERY
+                '.', ':' -> hasDotOrColon = true
+            }
+
+            if (i < hostStart || (i == hostStart && ipState == IP_V6)) {
+                continue
+            }
+
+            when (ipState) {
+                IP_V4 -> when (c) {
+                    in '0'..'9' -> {
+                        ipV4OctetDigits += 1
+                        ipV4OctetValue = ipV4OctetValue * 10 + (c - '0')
+                        if (ipV4OctetDigits > 3 || ipV4OctetValue > 255) ipState = IP_NOT_FOUND
+                    }
+                    '.' -> {
+                        ipV4Dots += 1
+                        if (ipV4OctetDigits == 0 || ipV4Dots > 3) ipState = IP_NOT_FOUND
+                        ipV4OctetDigits = 0
+                        ipV4OctetValue = 0
+                    }
+                    ':', '/' -> ipState = if (isCompleteIpV4(ipV4Dots, ipV4OctetDigits)) IP_FOUND else IP_NOT_FOUND
+                    else -> ipState = IP_NOT_FOUND
+                }
+
+                IP_V6 -> when (c) {
+                    ']' -> ipState = if (ipV6HasColon) IP_V6_CLOSED else IP_NOT_FOUND
+                    ':' -> ipV6HasColon = true
+                    '.' -> Unit // An embedded IPv4 address, e.g. "[::ffff:192.168.0.1]".
+                    else -> if (Character.digit(c, 16) < 0) ipState = IP_NOT_FOUND
+                }
+
+                IP_V6_CLOSED -> ipState = if (c == ':' || c == '/') IP_FOUND else IP_NOT_FOUND
+            }
+        }
+
+        if (!hasDotOrColon) {
+            return Kind.SEARCH_QUERY
+        }
+
+        val isIpLiteral = ipState == IP_FOUND ||
+                ipState == IP_V6_CLOSED ||
+                (ipState == IP_V4 && isCompleteIpV4(ipV4Dots, ipV4OctetDigits))
+        return if (isIpLiteral) Kind.IP_LITERAL else Kind.URL
+    }
+
+    /**
+     * Appends the normalized form of the given input to [out] and returns it. Callers can reuse
+     * [out] across calls to avoid allocating a builder for each input.
+     */
+    @JvmStatic
+    fun normalizeTo(input: CharSequence, out: StringBuilder): StringBuilder {
+        val start = trimmedStart(input)
+        val end = trimmedEnd(input, start)
+        if (!hasScheme(input, start, end)) {
+            out.append(HTTP_PREFIX)
+        }
+        return out.append(input, start, end)
+    }
+
+    /**
+     * Returns the normalized form of the given input. If the input is already normalized, it's
+     * returned as is; otherwise, [scratch] is cleared and used to build the result.
+     */
+    @JvmStatic
+    fun normalize(input: String, scratch: StringBuilder): String {
+        val start = trimmedStart(input)
+        val end = trimmedEnd(input, start)
+        if (hasScheme(input, start, end)) {
+            return if (start == 0 && end == input.length) input else input.substring(start, end)
+        }
+
+        scratch.setLength(0)
+        return normalizeTo(input, scratch).toString()
+    }
+
+    private fun hasScheme(input: CharSequence, start: Int, end: Int): Boolean {
+        for (i in start until end) {
+            if (input[i] == ':') {
+                return i > start
+            }
+        }
+        return false
+    }
+
+    private fun isCompleteIpV4(dots: Int, lastOctetDigits: Int) = dots == 3 && lastOctetDigits > 0
+
+    private fun trimmedStart(input: CharSequence): Int {
+        var start = 0
+        while (start < input.length && input[start] <= ' ') {
+            start += 1
+        }
+        return start
+    }
+
+    private fun trimmedEnd(input: CharSequence, start: Int): Int {
+        var end = input.length
+        while (end > start && input[end - 1] <= ' ') {
+            end -= 1
+        }
+        return end
+    }
+
+    private fun CharSequence.regionMatches(start: Int, end: Int, prefix: String): Boolean {
+        if (end - start < prefix.length) {
+            return false
+        }
+        for (i in prefix.indices) {
+            if (Character.toLowerCase(this[start + i]) != prefix[i]) {
+                return false
+            }
+        }
+        return true
+    }
+}
@@ -6,7 +6,6 @@
 package org.mozilla.tv.firefox.utils
 
 import android.content.Context
-import android.net.Uri
 import android.webkit.URLUtil
 
 import org.mozilla.tv.firefox.ext.serviceLocator
@@ -15,17 +14,14 @@ import java.net.URI
 import java.net.URISyntaxException
 
 object UrlUtils {
+    /** Reused by [normalize], which is called for every URL the user enters. */
+    private val normalizeBuilder = object : ThreadLocal<StringBuilder>() {
+        override fun initialValue() = StringBuilder()
+    }
+
     @JvmStatic
     fun normalize(input: String): String {
-        val trimmedInput = input.trim { it <= ' ' }
-        var uri = Uri.parse(trimmedInput)
-
-        uri.scheme.let { scheme ->
-            if (scheme == null || scheme.isEmpty()) {
-                uri = Uri.parse("http://$trimmedInput")
-            }
-        }
-        return uri.toString()
+        return UrlInputScanner.normalize(input, normalizeBuilder.get()!!)
     }
 
     /**
@@ -35,10 +31,7 @@ object UrlUtils {
      */
     @JvmStatic
     fun isUrl(url: String): Boolean {
-        val trimmedUrl = url.trim { it <= ' ' }
-        return if (trimmedUrl.contains(" ")) {
-            false
-        } else trimmedUrl.contains(".") || trimmedUrl.contains(":")
+        return UrlInputScanner.classify(url) != UrlInputScanner.Kind.SEARCH_QUERY
     }
 
     @JvmStatic
@@ -5,15 +5,19 @@
 package org.mozilla.tv.firefox.utils.publicsuffix;
 
 import android.content.Context;
+import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
 import android.text.TextUtils;
 
+import io.reactivex.Completable;
+import io.reactivex.Single;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Helper methods for the public suffix part of a domain.
@@ -28,10 +32,35 @@ import java.util.Set;
  */
 public class PublicSuffix {
 
+    /**
+     * Starts loading the public suffix list on a background thread so that later queries, including
+     * the tryGet variants, don't have to block on it.
+     */
+    @AnyThread
     public static void init(Context context) {
         PublicSuffixKt.init(context);
     }
 
+    /**
+     * Returns true if the public suffix list is loaded, i.e. queries will not block and the tryGet
+     * variants will return a value.
+     */
+    @AnyThread
+    public static boolean isReady() {
+        return PublicSuffixPatterns.getTrieIfLoaded() != null;
+    }
+
+    /**
+     * Returns a Completable that completes once the public suffix list is loaded, loading it on a
+     * background thread if necessary. If it's already loaded, this completes immediately on the
+     * subscribing thread.
+     */
+    @NonNull
+    @AnyThread
+    public static Completable whenReady(@NonNull Context context) {
+        return PublicSuffixKt.whenReady(context);
+    }
+
     /**
      * Strip the public suffix from the domain. Returns the original domain if no public suffix
      * could be found.
@@ -42,11 +71,27 @@ public class PublicSuffix {
     @NonNull
     @WorkerThread // This method might need to load data from disk
     public static String stripPublicSuffix(Context context, @NonNull String domain) {
+        return stripPublicSuffix(PublicSuffixPatterns.getTrie(context), domain);
+    }
+
+    /**
+     * Like {@link #stripPublicSuffix(Context, String)} but never blocks: returns null if the public
+     * suffix list is not loaded yet (see {@link #whenReady(Context)}).
+     */
+    @Nullable
+    @AnyThread
+    public static String tryStripPublicSuffix(@NonNull String domain) {
+        final PublicSuffixTrie trie = PublicSuffixPatterns.getTrieIfLoaded();
+        return trie == null ? null : stripPublicSuffix(trie, domain);
+    }
+
+    @NonNull
+    private static String stripPublicSuffix(PublicSuffixTrie trie, @NonNull String domain) {
         if (domain.length() == 0) {
             return domain;
         }
 
-        final int index = findPublicSuffixIndex(context, domain);
+        final int index = findPublicSuffixIndex(trie, domain);
         if (index == -1) {
             return domain;
         }
@@ -70,6 +115,39 @@ public class PublicSuffix {
         if (context == null) {
             throw new NullPointerException("Expected non-null Context argument");
         }
+        validateGetPublicSuffixArguments(domain, additionalPartCount);
+
+        return getPublicSuffix(PublicSuffixPatterns.getTrie(context), domain, additionalPartCount);
+    }
+
+    /**
+     * Like {@link #getPublicSuffix(Context, String, int)} but never blocks: returns null if the public
+     * suffix list is not loaded yet (see {@link #whenReady(Context)}).
+     */
+    @Nullable
+    @AnyThread
+    public static String tryGetPublicSuffix(@NonNull final String domain, final int additionalPartCount) {
+        validateGetPublicSuffixArguments(domain, additionalPartCount);
+
+        final PublicSuffixTrie trie = PublicSuffixPatterns.getTrieIfLoaded();
+        return trie == null ? null : getPublicSuffix(trie, domain, additionalPartCount);
+    }
+
+    /**
+     * Like {@link #getPublicSuffix(Context, String, int)} but waits for the public suffix list to load
+     * without blocking the calling thread.
+     */
+    @NonNull
+    @AnyThread
+    public static Single<String> getPublicSuffixAsync(@NonNull final Context context, @NonNull final String domain,
+                                                      final int additionalPartCount) {
+        validateGetPublicSuffixArguments(domain, additionalPartCount);
+
+        return whenReady(context).andThen(Single.fromCallable(() ->
+                getPublicSuffix(PublicSuffixPatterns.getTrie(context), domain, additionalPartCount)));
+    }
+
+    private static void validateGetPublicSuffixArguments(final String domain, final int additionalPartCount) {
         if (domain == null) {
             throw new NullPointerException("Expected non-null domain argument");
         }
@@ -77,8 +155,11 @@ public class PublicSuffix {
         if (additionalPartCount < 0) {
             throw new IllegalArgumentException("Expected additionalPartCount > 0. Got: " + additionalPartCount);
         }
+    }
 
-        final int publicSuffixCombinedIndex = findPublicSuffixIndex(context, domain);
+    @NonNull
+    private static String getPublicSuffix(final PublicSuffixTrie trie, final String domain, final int additionalPartCount) {
+        final int publicSuffixCombinedIndex = findPublicSuffixIndex(trie, domain);
         if (publicSuffixCombinedIndex < 0) {
             return "";
         }
@@ -96,39 +177,67 @@ public class PublicSuffix {
 
     /**
      * Returns the index of the leftmost part of the public suffix, or -1 if not found.
+     *
+     * The host is scanned once from right to left, walking {@link PublicSuffixTrie} label by label:
+     * the longest matching rule wins. No substrings are allocated.
      */
-    @WorkerThread
-    private static int findPublicSuffixIndex(Context context, String domain) {
-        final List<String> parts = normalizeAndSplit(domain);
-        final int partsSize = parts.size();
-        final Set<String> exact = PublicSuffixPatterns.getExactSet(context);
-
-        for (int i = 0; i < partsSize; i++) {
-            String ancestorName = TextUtils.join(".", parts.subList(i, partsSize));
+    private static int findPublicSuffixIndex(PublicSuffixTrie trie, String domain) {
+        // Trailing dots are ignored: String.split drops trailing empty parts.
+        int labelEnd = domain.length();
+        while (labelEnd > 0 && isDot(domain.charAt(labelEnd - 1))) {
+            labelEnd--;
+        }
+        if (labelEnd == 0) {
+            return -1;
+        }
 
-            if (exact.contains(ancestorName)) {
-                return joinIndex(parts, i);
+        int index = -1;
+        int parent = PublicSuffixTrie.NOT_FOUND; // The node matching the labels to the right of this one.
+        int node = PublicSuffixTrie.ROOT;
+        while (true) {
+            int i = labelEnd - 1;
+            for (; i >= 0 && !isDot(domain.charAt(i)); i--) {
+                if (node != PublicSuffixTrie.NOT_FOUND) {
+                    node = trie.child(node, Character.toLowerCase(domain.charAt(i)));
+                }
             }
 
-            // Excluded domains (e.g. !nhs.uk) use the next highest
-            // domain as the effective public suffix (e.g. uk).
-            if (PublicSuffixPatterns.EXCLUDED.contains(ancestorName)) {
-                return joinIndex(parts, i + 1);
+            // Historically, a match on the first label returns the end of that label rather than its start.
+            final int labelIndex = i < 0 ? labelEnd : i;
+            final int flags = node == PublicSuffixTrie.NOT_FOUND ? 0 : trie.flags(node);
+            if ((flags & PublicSuffixTrie.FLAG_EXACT) != 0) {
+                index = labelIndex;
+            } else if ((flags & PublicSuffixTrie.FLAG_EXCEPTION) != 0) {
+                // Excluded domains (e.g. !nhs.uk) use the next highest
+                // domain as the effective public suffix (e.g. uk).
+                index = labelEnd;
+            } else if (parent != PublicSuffixTrie.NOT_FOUND &&
+                    (trie.flags(parent) & PublicSuffixTrie.FLAG_WILDCARD) != 0) {
+                index = labelIndex;
             }
 
-            if (matchesWildcardPublicSuffix(ancestorName)) {
-                return joinIndex(parts, i);
+            // No longer rule can match if we've fallen off the trie.
+            if (i < 0 || node == PublicSuffixTrie.NOT_FOUND) {
+                return index;
             }
-        }
 
-        return -1;
+            parent = node;
+            node = trie.child(node, '.');
+            labelEnd = i;
+        }
     }
 
     /**
      * Normalize domain and split into domain parts (www.mozilla.org -> [www, mozilla, org]).
      */
     private static List<String> normalizeAndSplit(String domain) {
-        domain = domain.replaceAll("[.\u3002\uFF0E\uFF61]", "."); // All dot-like characters to '.'
+        final char[] chars = domain.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (isDot(chars[i])) {
+                chars[i] = '.'; // All dot-like characters to '.'
+            }
+        }
+        domain = new String(chars);
         domain = domain.toLowerCase();
 
         if (domain.endsWith(".")) {
@@ -141,26 +250,7 @@ public class PublicSuffix {
         return parts;
     }
 
-    /**
-     * Translate the index of the leftmost part of the public suffix to the index of the domain string.
-     *
-     * [www, mozilla, org] and 2 => 12 (www.mozilla)
-     */
-    private static int joinIndex(List<String> parts, int index) {
-        int actualIndex = parts.get(0).length();
-
-        for (int i = 1; i < index; i++) {
-            actualIndex += parts.get(i).length() + 1; // Add one for the "." that is not part of the list elements
-        }
-
-        return actualIndex;
-    }
-
-    /**
-     * Does the domain name match one of the "wildcard" patterns (e.g. {@code "*.ar"})?
-     */
-    private static boolean matchesWildcardPublicSuffix(String domain) {
-        final String[] pieces = domain.split("\\.", 2);
-        return pieces.length == 2 && PublicSuffixPatterns.UNDER.contains(pieces[1]);
+    private static boolean isDot(char c) {
+        return c == '.' || c == '\u3002' || c == '\uFF0E' || c == '\uFF61';
     }
 }
@@ -4,19 +4,39 @@
 
 package org.mozilla.tv.firefox.utils.publicsuffix
 
+import android.annotation.SuppressLint
 import android.content.Context
-import kotlinx.coroutines.GlobalScope
-import kotlinx.coroutines.launch
+import io.reactivex.Completable
+import io.reactivex.schedulers.Schedulers
 
 /** A helper to allow [PublicSuffix] to call Kotlin code: converting the whole file didn't seem right. */
 internal object PublicSuffixKt {
 
-    // We want to execute this on our existing common pool, which only Kotlin has access to so we
-    // define the code here. The common pool is defined by ForkJoinPool.commonPool() on API 24+ but
-    // it's created by Kotlin on lower API levels (we support 22+).
+    private var warmUp: Completable? = null
+
     @JvmStatic
+    @SuppressLint("CheckResult") // The load is process-scoped so there's nothing to dispose.
     fun init(context: Context) {
-        // We don't care for the result: we just want to call this method so it caches the file from disk.
-        GlobalScope.launch { PublicSuffixPatterns.getExactSet(context) }
+        // We don't care for the result: we just want to start loading the list from disk.
+        getOrStartWarmUp(context).subscribe()
+    }
+
+    @JvmStatic
+    fun whenReady(context: Context): Completable {
+        // Avoid the thread hop when we're already loaded.
+        return if (PublicSuffix.isReady()) Completable.complete() else getOrStartWarmUp(context)
+    }
+
+    /**
+     * Loads the list on the io scheduler at most once: later subscribers to the returned
+     * Completable share the same load.
+     */
+    @Synchronized
+    private fun getOrStartWarmUp(context: Context): Completable = warmUp ?: run {
+        val applicationContext = context.applicationContext
+        Completable.fromAction { PublicSuffixPatterns.getTrie(applicationContext) }
+            .subscribeOn(Schedulers.io())
+            .cache()
+            .also { warmUp = it }
     }
 }
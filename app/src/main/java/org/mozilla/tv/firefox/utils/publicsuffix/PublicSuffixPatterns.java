@@ -5,111 +5,87 @@
 package org.mozilla.tv.firefox.utils.publicsuffix;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import androidx.annotation.VisibleForTesting;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 class PublicSuffixPatterns {
-    /** If a hostname is contained as a key in this map, it is a public suffix. */
-    private static Set<String> EXACT = null;
+    /**
+     * The public suffix list, compiled from src/main/publicsuffix/publicsuffixlist at build time.
+     * It's stored uncompressed in the APK (see aaptOptions) so we can memory-map it.
+     */
+    private static final String TRIE_ASSET = "publicsuffixlist.trie";
 
-    static synchronized Set<String> getExactSet(Context context) {
-        if (EXACT != null) {
-            return EXACT;
-        }
+    private static volatile PublicSuffixTrie TRIE = null;
 
-        EXACT = new HashSet<>();
+    /** Returns the trie if it's already been loaded, or null otherwise. Never blocks. */
+    static PublicSuffixTrie getTrieIfLoaded() {
+        return TRIE;
+    }
 
-        BufferedReader reader = null;
-        try {
-            reader = new BufferedReader(new InputStreamReader(
-                    new BufferedInputStream(context.getAssets().open("publicsuffixlist"))));
+    static PublicSuffixTrie getTrie(Context context) {
+        PublicSuffixTrie trie = TRIE;
+        if (trie != null) {
+            return trie;
+        }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                EXACT.add(line);
+        synchronized (PublicSuffixPatterns.class) {
+            if (TRIE == null) {
+                TRIE = new PublicSuffixTrie(openTrieAsset(context));
             }
-
-        } catch (IOException e) {
-            throw new IllegalStateException("resource publicsuffixlist could not be opened but is bundled with app", e);
-        } finally {
-            try {
-                if (reader != null) {
-                    reader.close();
-                }
-            } catch (IOException e) { }
+            return TRIE;
         }
-
-        return EXACT;
     }
 
-
     /**
-     * If a hostname is not a key in the EXCLUDE map, and if removing its
-     * leftmost component results in a name which is a key in this map, it is a
-     * public suffix.
+     * Uses the given compiled trie rather than the one bundled in the APK. This is for JVM-only
+     * environments, like the benchmarks, which have no access to assets.
      */
-    static final Set<String> UNDER = new HashSet<>();
-    static {
-        UNDER.add("bd");
-        UNDER.add("magentosite.cloud");
-        UNDER.add("ke");
-        UNDER.add("triton.zone");
-        UNDER.add("compute.estate");
-        UNDER.add("ye");
-        UNDER.add("pg");
-        UNDER.add("kh");
-        UNDER.add("platform.sh");
-        UNDER.add("fj");
-        UNDER.add("ck");
-        UNDER.add("fk");
-        UNDER.add("alces.network");
-        UNDER.add("sch.uk");
-        UNDER.add("jm");
-        UNDER.add("mm");
-        UNDER.add("api.githubcloud.com");
-        UNDER.add("ext.githubcloud.com");
-        UNDER.add("0emm.com");
-        UNDER.add("githubcloudusercontent.com");
-        UNDER.add("cns.joyent.com");
-        UNDER.add("bn");
-        UNDER.add("yokohama.jp");
-        UNDER.add("nagoya.jp");
-        UNDER.add("kobe.jp");
-        UNDER.add("sendai.jp");
-        UNDER.add("kawasaki.jp");
-        UNDER.add("sapporo.jp");
-        UNDER.add("kitakyushu.jp");
-        UNDER.add("np");
-        UNDER.add("nom.br");
-        UNDER.add("er");
-        UNDER.add("cryptonomic.net");
-        UNDER.add("gu");
-        UNDER.add("kw");
-        UNDER.add("zw");
-        UNDER.add("mz");
+    @VisibleForTesting
+    static synchronized void loadTrie(ByteBuffer buffer) {
+        TRIE = new PublicSuffixTrie(buffer);
     }
 
     /**
-     * The elements in this map would pass the UNDER test, but are known not to
-     * be public suffixes and are thus excluded from consideration. Since it
-     * refers to elements in UNDER of the same type, the type is actually not
-     * important here. The map is simply used for consistency reasons.
+     * Memory-maps the compiled trie so none of it lives on the Java heap. If the asset was
+     * compressed (e.g. in some test environments), we fall back to copying it into a direct buffer.
      */
-    static final Set<String> EXCLUDED = new HashSet<>();
-    static {
-        EXCLUDED.add("www.ck");
-        EXCLUDED.add("city.yokohama.jp");
-        EXCLUDED.add("city.nagoya.jp");
-        EXCLUDED.add("city.kobe.jp");
-        EXCLUDED.add("city.sendai.jp");
-        EXCLUDED.add("city.kawasaki.jp");
-        EXCLUDED.add("city.sapporo.jp");
-        EXCLUDED.add("city.kitakyushu.jp");
-        EXCLUDED.add("teledata.mz");
+    private static ByteBuffer openTrieAsset(Context context) {
+        try (final AssetFileDescriptor descriptor = context.getAssets().openFd(TRIE_ASSET);
+             final FileInputStream stream = descriptor.createInputStream()) {
+            return stream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+        } catch (FileNotFoundException e) {
+            return readTrieAsset(context);
+        } catch (IOException e) {
+            throw new IllegalStateException("resource " + TRIE_ASSET + " could not be opened but is bundled with app", e);
+        }
+    }
+
+    private static ByteBuffer readTrieAsset(Context context) {
+        try (final InputStream stream = context.getAssets().open(TRIE_ASSET)) {
+            final byte[] chunk = new byte[8192];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(stream.available());
+            int read;
+            while ((read = stream.read(chunk)) != -1) {
+                if (buffer.remaining() < read) {
+                    final ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + read));
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+                buffer.put(chunk, 0, read);
+            }
+            buffer.flip();
+            return buffer;
+        } catch (IOException e) {
+            throw new IllegalStateException("resource " + TRIE_ASSET + " could not be opened but is bundled with app", e);
+        }
     }
 }
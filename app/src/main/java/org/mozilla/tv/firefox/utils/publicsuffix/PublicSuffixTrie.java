@@ -0,0 +1,79 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils.publicsuffix;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compiled trie over the public suffix rules, keyed by the characters of each rule in reverse
+ * (e.g. "co.uk" is stored as k-u-.-o-c). This allows a host to be matched in a single right-to-left
+ * scan without splitting it or allocating substrings.
+ *
+ * Each node that ends a complete rule carries flags describing which kind of rule it ends:
+ * - {@link #FLAG_EXACT}: the rule itself is a public suffix (e.g. "co.uk").
+ * - {@link #FLAG_WILDCARD}: any single label below the rule is a public suffix (e.g. "*.kawasaki.jp").
+ * - {@link #FLAG_EXCEPTION}: the rule is excluded from a wildcard (e.g. "!city.kawasaki.jp").
+ *
+ * The trie is compiled at build time by the CompilePublicSuffixList Gradle task (see buildSrc),
+ * which documents the binary format. Nodes are laid out in breadth-first order so the children of
+ * every node are contiguous and sorted by character: a lookup is a binary search over a small
+ * range of the buffer. The buffer is only read with absolute gets so it's safe to share across threads.
+ */
+final class PublicSuffixTrie {
+
+    static final int ROOT = 0;
+    static final int NOT_FOUND = -1;
+
+    static final int FLAG_EXACT = 1;
+    static final int FLAG_WILDCARD = 1 << 1;
+    static final int FLAG_EXCEPTION = 1 << 2;
+
+    private static final int MAGIC = 0x50534c31; // "PSL1"
+    private static final int HEADER_SIZE = 8;
+
+    private final ByteBuffer buffer;
+    /** The offset of int[nodeCount + 1]: the children of node i are the nodes in [firstChild[i], firstChild[i + 1]). */
+    private final int firstChildOffset;
+    /** The offset of char[nodeCount]: the character on the edge leading into each node. */
+    private final int charsOffset;
+    /** The offset of byte[nodeCount]: the flags of each node. */
+    private final int flagsOffset;
+
+    PublicSuffixTrie(@NonNull ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Expected a compiled public suffix list");
+        }
+
+        final int nodeCount = buffer.getInt(4);
+        this.buffer = buffer;
+        this.firstChildOffset = HEADER_SIZE;
+        this.charsOffset = firstChildOffset + 4 * (nodeCount + 1);
+        this.flagsOffset = charsOffset + 2 * nodeCount;
+    }
+
+    /** Returns the child of the given node reached by the given character, or {@link #NOT_FOUND}. */
+    int child(int node, char c) {
+        int low = buffer.getInt(firstChildOffset + 4 * node);
+        int high = buffer.getInt(firstChildOffset + 4 * (node + 1)) - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char midChar = buffer.getChar(charsOffset + 2 * mid);
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    int flags(int node) {
+        return buffer.get(flagsOffset + node);
+    }
+}
@@ -35,14 +35,18 @@ import org.mozilla.tv.firefox.MediaSessionHolder
 import org.mozilla.tv.firefox.R
 import org.mozilla.tv.firefox.ScreenControllerStateMachine.ActiveScreen
 import org.mozilla.tv.firefox.architecture.FirefoxViewModelProviders
+import org.mozilla.tv.firefox.ext.addJavascriptInterface
 import org.mozilla.tv.firefox.ext.addSubmitListenerToInputElements
 import org.mozilla.tv.firefox.ext.couldScrollInDirection
 import org.mozilla.tv.firefox.ext.focusedDOMElement
+import org.mozilla.tv.firefox.ext.flingScroll
 import org.mozilla.tv.firefox.ext.isUrlWhitelistedForSubmitInputHack
 import org.mozilla.tv.firefox.ext.isYoutubeTV
 import org.mozilla.tv.firefox.ext.maybeGoBackBeforeFxaSignIn
+import org.mozilla.tv.firefox.ext.observeHitTargets
 import org.mozilla.tv.firefox.ext.observeScrollPosition
 import org.mozilla.tv.firefox.ext.pauseAllVideoPlaybacks
+import org.mozilla.tv.firefox.ext.removeJavascriptInterface
 import org.mozilla.tv.firefox.ext.requireWebRenderComponents
 import org.mozilla.tv.firefox.ext.resetView
 import org.mozilla.tv.firefox.ext.scrollByClamped
@@ -54,6 +58,8 @@ import org.mozilla.tv.firefox.hint.InactiveHintViewModel
 import org.mozilla.tv.firefox.session.SessionRepo
 import org.mozilla.tv.firefox.utils.SupportUtils
 import org.mozilla.tv.firefox.utils.URLs
+import org.mozilla.tv.firefox.webrender.cursor.HIT_TARGETS_JS_INTERFACE_IDENTIFIER
+import org.mozilla.tv.firefox.webrender.cursor.HitTargets
 
 private const val ARGUMENT_SESSION_UUID = "sessionUUID"
 
@@ -124,6 +130,7 @@ class WebRenderFragment : EngineViewLifecycleFragment(), Session.Observer {
     override fun onUrlChanged(session: Session, url: String) {
         if (url == URLs.APP_URL_HOME) serviceLocator?.screenController?.showNavigationOverlay(fragmentManager, true)
         youtubeBackHandler.onUrlChanged(url)
+        serviceLocator?.cursorModel?.hitTargets?.clear()
     }
 
     override fun onLoadingStateChanged(session: Session, loading: Boolean) {
@@ -136,6 +143,10 @@ class WebRenderFragment : EngineViewLifecycleFragment(), Session.Observer {
                 engineView?.addSubmitListenerToInputElements()
             }
 
+            if (serviceLocator?.cursorModel?.hitTargets != null) {
+                engineView?.observeHitTargets() // Calls through to HitTargets.
+            }
+
             youtubeBackHandler.onLoadComplete()
         }
     }
@@ -155,6 +166,12 @@ class WebRenderFragment : EngineViewLifecycleFragment(), Session.Observer {
             context.serviceLocator.cursorModel.screenBounds = PointF(right.toFloat(), bottom.toFloat())
         }
         context.serviceLocator.cursorModel.webViewCouldScrollInDirectionProvider = layout.engineView::couldScrollInDirection
+        context.serviceLocator.cursorModel.webViewFlingProvider = layout.engineView::flingScroll
+        if (context.serviceLocator.experimentsProvider.shouldUseMagneticCursor()) {
+            val hitTargets = HitTargets()
+            layout.engineView.addJavascriptInterface(hitTargets, HIT_TARGETS_JS_INTERFACE_IDENTIFIER)
+            context.serviceLocator.cursorModel.hitTargets = hitTargets
+        }
 
         // Setup the banner
 
@@ -257,6 +274,11 @@ class WebRenderFragment : EngineViewLifecycleFragment(), Session.Observer {
         mediaSessionHolder?.videoVoiceCommandMediaSession?.onDestroyEngineView(engineView!!, session)
 
         context!!.serviceLocator.cursorModel.webViewCouldScrollInDirectionProvider = null
+        context!!.serviceLocator.cursorModel.webViewFlingProvider = null
+        if (context!!.serviceLocator.cursorModel.hitTargets != null) {
+            engineView!!.removeJavascriptInterface(HIT_TARGETS_JS_INTERFACE_IDENTIFIER)
+            context!!.serviceLocator.cursorModel.hitTargets = null
+        }
 
         rootView = null
 
@@ -23,26 +23,52 @@ import org.mozilla.tv.firefox.framework.FrameworkRepo
 import org.mozilla.tv.firefox.session.SessionRepo
 import org.mozilla.tv.firefox.utils.Direction
 import org.mozilla.tv.firefox.utils.toObservableMutableSet
+import java.util.concurrent.TimeUnit
 
 // Constants that we expect to be tweaked in order to adjust cursor behavior
+// Velocities are in px per 60 FPS frame, the unit they were tuned in, whatever the actual frame rate.
 private const val INITIAL_VELOCITY = 0f
 private const val MAX_VELOCITY = 21f
 private const val MS_TO_MAX_VELOCITY = 600
 private const val MAX_SCROLL_VELOCITY = 16
+// With the magnetic cursor, the cursor slows down over clickable elements so it's easier to stop on
+// them, and snaps onto one this close when the keys are released.
+private const val MAGNETIC_VELOCITY_FACTOR = 0.5f
+private const val MAGNETIC_SNAP_DISTANCE_PX = 24f
 
 // Other constants
 private const val VELOCITY_TO_ACCELERATE = MAX_VELOCITY - INITIAL_VELOCITY
 private const val ACCELERATION_PER_MS = VELOCITY_TO_ACCELERATE / MS_TO_MAX_VELOCITY
+private const val FRAMES_PER_MS = 60f / 1000
 // 60 FPS = 16.6 repeating millis/frame.
-// This is only used to draw one frame, so it's alright that it's only an approximation
-private const val MS_PER_FRAME = 16
-private const val LAST_UPDATE_AT_MS_UNSET = -1L
+// This is only used when we don't know when the cursor started moving, so it's alright that it's only an approximation
+private const val MS_PER_FRAME = 1000f / 60
+// After a stall, e.g. a long GC, the cursor shouldn't jump across the screen.
+private const val MAX_MS_PER_UPDATE = 100f
+private const val NANOS_PER_MS = 1_000_000f
+// When the keys are released while scrolling, the page keeps scrolling and slows down: its velocity
+// decays exponentially with this time constant, so it scrolls this many ms' worth further in total.
+private const val SCROLL_MOMENTUM_TIME_CONSTANT_MS = 150f
+// Below this, the page scrolls less than a px every few frames: stop.
+private const val MIN_SCROLL_MOMENTUM_PX_PER_MS = 0.01f
+private const val MS_PER_SECOND = 1000
+// Each scroll request makes the engine scroll and repaint the page: rather than scrolling on every
+// frame, send the distance scrolled since the last request at most this often, or when it is this far.
+private const val MIN_MS_BETWEEN_SCROLL_REQUESTS = 50f
+private const val MAX_PX_PER_SCROLL_REQUEST = 64
+private const val LAST_UPDATE_AT_NANOS_UNSET = -1L
 
 /**
  * @param [wasKeyEventConsumed] represents whether or not the passed [KeyEvent] was consumed
  * @param [simulatedTouch] a [MotionEvent]. If it is not null, this should be dispatched to an Activity
  */
-data class HandleKeyEventResult(val wasKeyEventConsumed: Boolean, val simulatedTouch: MotionEvent?)
+data class HandleKeyEventResult(val wasKeyEventConsumed: Boolean, val simulatedTouch: MotionEvent?) {
+    companion object {
+        // Held keys repeat many times a second: these results are shared so handling them doesn't allocate.
+        val CONSUMED = HandleKeyEventResult(wasKeyEventConsumed = true, simulatedTouch = null)
+        val NOT_CONSUMED = HandleKeyEventResult(wasKeyEventConsumed = false, simulatedTouch = null)
+    }
+}
 
 sealed class CursorEvent {
     /**
@@ -52,6 +78,15 @@ sealed class CursorEvent {
      */
     data class ScrolledToEdge(val edge: Direction) : CursorEvent() // TODO how often does this happen?  Telemetry would be good
     data class CursorMoved(val direction: Direction) : CursorEvent()
+
+    companion object {
+        // Shared so pushing events for repeated keys doesn't allocate: see CursorModel.pushCursorEvent.
+        private val SCROLLED_TO_EDGE = Direction.values().map { ScrolledToEdge(it) }
+        private val CURSOR_MOVED = Direction.values().map { CursorMoved(it) }
+
+        fun scrolledToEdge(edge: Direction) = SCROLLED_TO_EDGE[edge.ordinal]
+        fun cursorMoved(direction: Direction) = CURSOR_MOVED[direction.ordinal]
+    }
 }
 
 /**
@@ -72,9 +107,22 @@ sealed class CursorEvent {
  * - [CursorView] handles view state (except for position updates)
  *
  * These classes are untraditional in that [CursorView] triggers position updates in the model,
- * as opposed to the Model pushing updates to the View. This happens in [CursorView.onDraw]:
- * when each frame is drawn, onDraw requests a position update from [CursorModel].  This ensures
- * that we update position exactly once per frame.
+ * as opposed to the Model pushing updates to the View. This happens in a
+ * [android.view.Choreographer] frame callback: on each frame while the cursor moves, [CursorView]
+ * requests a position update from [CursorModel] for the frame's vsync time.  This ensures that we
+ * update position exactly once per frame.
+ *
+ * The position is integrated from the velocity over the exact time between frames, rather than
+ * moving a fixed distance per frame, so the cursor moves at the same speed at any display refresh
+ * rate (e.g. 30, 50 or 60 Hz) and doesn't jump when frames are dropped.
+ *
+ * When the cursor is at the edge of the screen, it scrolls the page instead: the distance is
+ * accumulated over frames and requested in whole px, at a bounded rate. When the keys are released,
+ * the page keeps scrolling and slows down, with a single fling if the engine supports it and with
+ * scroll requests at the same rate otherwise.
+ *
+ * With the magnetic cursor (see [hitTargets]), the cursor slows down over clickable elements and
+ * snaps onto a nearby one when the keys are released.
  *
  * ## Problem this solved
  * Our original solution pushed a new position to the View every 16 MS (approximately 60 FPS), but
@@ -92,13 +140,28 @@ class CursorModel(
     // This is set early in the Fragment lifecycle. Most methods short if it is not available
     var screenBounds: PointF? = null
     var webViewCouldScrollInDirectionProvider: ((Direction) -> Boolean)? = null
+    /**
+     * Flings the page with the given velocity, in px per second, if the engine can. Returns whether it
+     * did: if not, the model scrolls the page itself as it slows down.
+     */
+    var webViewFlingProvider: ((velocityX: Int, velocityY: Int) -> Boolean)? = null
+    /**
+     * The clickable elements of the page, which the cursor is drawn to if this is set: the magnetic
+     * cursor. It is optional because it runs JavaScript on every page.
+     */
+    var hitTargets: HitTargets? = null
 
     private val directionKeysPressed = mutableSetOf<Direction>().toObservableMutableSet().apply {
-        attachObserver { _isCursorMoving.onNext(this.isNotEmpty()) }
+        // Repeated key presses don't change the set: only emit changes, which allocate downstream.
+        attachObserver { if (_isCursorMoving.value != isNotEmpty()) _isCursorMoving.onNext(isNotEmpty()) }
     }
 
+    // The latest value of [isCursorEnabledForAppState], kept by a long-lived subscription so key
+    // events, which repeat many times a second while a key is held, can read it without subscribing.
+    @Volatile private var isCursorEnabled = false
+
     private var lastVelocity = 0f
-    private var lastUpdatedAtMS = LAST_UPDATE_AT_MS_UNSET
+    private var lastUpdatedAtNanos = LAST_UPDATE_AT_NANOS_UNSET
     private var lastKnownCursorPos = PointF(0f, 0f)
     private var isInitialCursorPositionSet = false
 
@@ -106,6 +169,17 @@ class CursorModel(
     // access, this property should only be used from calculateAndSendScrollEvent, which is safe to do because
     // it's only called from the main thread.
     private val scrollDistanceMutableCache = PointF(0f, 0f)
+    // Like scrollDistanceMutableCache, for hit target lookups from mutatePosition.
+    private val hitTargetPointMutableCache = PointF(0f, 0f)
+
+    // The distance scrolled since the last scroll request: only whole px are requested, at a bounded rate.
+    private var scrollRemainderX = 0f
+    private var scrollRemainderY = 0f
+    // The first scroll of a gesture is requested right away.
+    private var millisSinceLastScrollRequest = MIN_MS_BETWEEN_SCROLL_REQUESTS
+    // The velocity of the last scroll, in px per ms: the page keeps scrolling after the keys are released.
+    private var scrollVelocityX = 0f
+    private var scrollVelocityY = 0f
 
     private val _cursorMovedEvents = PublishSubject.create<CursorEvent>()
     /**
@@ -151,15 +225,15 @@ class CursorModel(
         return when {
             event.isKeyCodeSelect -> handleSelectKeyEvent(event)
             Direction.KEY_CODES.contains(event.keyCode) -> handleDirectionKeyEvent(event)
-            else -> HandleKeyEventResult(wasKeyEventConsumed = false, simulatedTouch = null)
+            else -> HandleKeyEventResult.NOT_CONSUMED
         }
     }
 
     private fun handleDirectionKeyEvent(event: KeyEvent): HandleKeyEventResult {
         fun getResult(wasKeyEventConsumed: Boolean) =
-            HandleKeyEventResult(wasKeyEventConsumed, simulatedTouch = null)
+            if (wasKeyEventConsumed) HandleKeyEventResult.CONSUMED else HandleKeyEventResult.NOT_CONSUMED
 
-        if (!isCursorEnabledForAppState.blockingFirst()) {
+        if (!isCursorEnabled) {
             return getResult(false)
         }
         require(Direction.KEY_CODES.contains(event.keyCode)) {
@@ -170,6 +244,11 @@ class CursorModel(
         when (event.action) {
             KeyEvent.ACTION_UP -> directionKeysPressed -= direction
             KeyEvent.ACTION_DOWN -> {
+                // The cursor starts moving when the key is pressed rather than on the next frame.
+                // Key event times and frame times are both based on the monotonic clock.
+                if (directionKeysPressed.isEmpty() && lastUpdatedAtNanos == LAST_UPDATE_AT_NANOS_UNSET) {
+                    lastUpdatedAtNanos = TimeUnit.MILLISECONDS.toNanos(event.eventTime)
+                }
                 directionKeysPressed += direction
                 pushCursorEvent(direction)
             }
@@ -187,9 +266,9 @@ class CursorModel(
         val endOfDomContentReached = couldScroll == false
 
         val event = if (cursorMovedToEdgeOfScreen && endOfDomContentReached) {
-            CursorEvent.ScrolledToEdge(direction)
+            CursorEvent.scrolledToEdge(direction)
         } else {
-            CursorEvent.CursorMoved(direction)
+            CursorEvent.cursorMoved(direction)
         }
 
         _cursorMovedEvents.onNext(event)
@@ -201,7 +280,7 @@ class CursorModel(
         fun getResult(motionEvent: MotionEvent?) =
             HandleKeyEventResult(wasKeyEventConsumed = motionEvent != null, simulatedTouch = motionEvent)
 
-        if (!isCursorEnabledForAppState.blockingFirst()) {
+        if (!isCursorEnabled) {
             return getResult(null)
         }
 
@@ -230,10 +309,12 @@ class CursorModel(
     /**
      * See [CursorModel] kdoc for details.
      *
-     * @return whether or not the view should continue to invalidate itself
+     * @param frameTimeNanos the time of the frame being drawn, in the [System.nanoTime] time base,
+     * e.g. as given to [android.view.Choreographer.FrameCallback.doFrame].
+     * @return whether or not the view should continue to update the position on the next frame
      * Note that in addition to returning a value, this function also mutates [oldPosAndReturnedPos]
      */
-    fun mutatePosition(oldPosAndReturnedPos: PointF): Boolean {
+    fun mutatePosition(oldPosAndReturnedPos: PointF, frameTimeNanos: Long): Boolean {
         lastKnownCursorPos = oldPosAndReturnedPos
         when {
             !isInitialCursorPositionSet -> {
@@ -245,75 +326,199 @@ class CursorModel(
                 return true
             }
             directionKeysPressed.isEmpty() -> {
-                resetCursorState()
-                return false
+                // The cursor was moving until the keys were released.
+                if (lastVelocity != INITIAL_VELOCITY) {
+                    snapToNearbyHitTarget(oldPosAndReturnedPos)
+                    flushScrollRequest()
+                }
+
+                if (!isScrollMomentumActive()) {
+                    resetCursorState()
+                    return false
+                }
+
+                // The cursor stops when the keys are released, even if the page keeps scrolling.
+                lastVelocity = INITIAL_VELOCITY
+                if (!scrollWithMomentum(getMillisSinceLastMutation(frameTimeNanos))) {
+                    resetCursorState()
+                    return false
+                }
+                lastUpdatedAtNanos = frameTimeNanos
+                return true
             }
             else -> {
-                val currTime = System.currentTimeMillis()
-                // If we're starting a new update loop, we don't have a previous update value. Instead,
-                // we assume an average amount of time has passed (one frame).
-                if (lastUpdatedAtMS == LAST_UPDATE_AT_MS_UNSET) lastUpdatedAtMS = currTime - MS_PER_FRAME
-                val millisSinceLastMutation = currTime - lastUpdatedAtMS
+                val millisSinceLastMutation = getMillisSinceLastMutation(frameTimeNanos)
 
-                lastVelocity = internalMutatePositionAndReturnVelocity(
+                val distance = internalMutatePositionAndReturnDistance(
                         oldPosAndReturnedPos,
                         millisSinceLastMutation,
-                        lastVelocity,
                         directionKeysPressed
                 )
 
-                calculateAndSendScrollEvent(millisSinceLastMutation, lastVelocity, oldPosAndReturnedPos)
-                lastUpdatedAtMS = currTime
+                calculateAndSendScrollEvent(distance, millisSinceLastMutation, oldPosAndReturnedPos)
+                lastUpdatedAtNanos = frameTimeNanos
                 return true
             }
         }
     }
 
-    private fun calculateAndSendScrollEvent(millisPassed: Long, velocity: Float, newPos: PointF) {
-        val approxFramesPassed = (millisPassed / MS_PER_FRAME).toInt()
-        getScrollDistance(scrollDistanceMutableCache, velocity, newPos, approxFramesPassed) // mutates scrollDistance...
-        if (scrollDistanceMutableCache.x != 0f || scrollDistanceMutableCache.y != 0f) {
-            _scrollRequests.onNext(scrollDistanceMutableCache)
+    private fun getMillisSinceLastMutation(frameTimeNanos: Long): Float {
+        // If we don't know when the cursor started moving, we assume an average amount of
+        // time has passed (one frame). Time can't run backwards: the key may have been
+        // pressed after the frame started.
+        return if (lastUpdatedAtNanos == LAST_UPDATE_AT_NANOS_UNSET) {
+            MS_PER_FRAME
+        } else {
+            ((frameTimeNanos - lastUpdatedAtNanos) / NANOS_PER_MS).coerceIn(0f, MAX_MS_PER_UPDATE)
+        }
+    }
+
+    private fun calculateAndSendScrollEvent(distance: Float, millisPassed: Float, newPos: PointF) {
+        getScrollDistance(scrollDistanceMutableCache, distance, newPos) // mutates scrollDistance...
+        if (millisPassed > 0f) {
+            scrollVelocityX = scrollDistanceMutableCache.x / millisPassed
+            scrollVelocityY = scrollDistanceMutableCache.y / millisPassed
+        }
+        sendScrollRequest(scrollDistanceMutableCache.x, scrollDistanceMutableCache.y, millisPassed)
+    }
+
+    /**
+     * Adds the given scroll distance to the distance scrolled since the last request, and requests
+     * its whole px if [MIN_MS_BETWEEN_SCROLL_REQUESTS] have passed or it is [MAX_PX_PER_SCROLL_REQUEST]
+     * long: each request makes the page repaint, so requesting on every frame is wasted work.
+     */
+    private fun sendScrollRequest(distanceX: Float, distanceY: Float, millisPassed: Float) {
+        scrollRemainderX += distanceX
+        scrollRemainderY += distanceY
+        millisSinceLastScrollRequest += millisPassed
+        if (millisSinceLastScrollRequest >= MIN_MS_BETWEEN_SCROLL_REQUESTS ||
+                Math.abs(scrollRemainderX) >= MAX_PX_PER_SCROLL_REQUEST ||
+                Math.abs(scrollRemainderY) >= MAX_PX_PER_SCROLL_REQUEST) {
+            flushScrollRequest()
         }
     }
 
+    /**
+     * Requests the whole px of the distance scrolled since the last request: scrolling by fractions
+     * of px would be dropped, so the page would scroll less than the cursor requested, and sending
+     * requests with nothing to scroll is wasted work. The fractions are added to the next request.
+     */
+    private fun flushScrollRequest() {
+        val wholeX = scrollRemainderX.toInt()
+        val wholeY = scrollRemainderY.toInt()
+        if (wholeX == 0 && wholeY == 0) return
+
+        millisSinceLastScrollRequest = 0f
+        scrollRemainderX -= wholeX
+        scrollRemainderY -= wholeY
+        scrollDistanceMutableCache.set(wholeX.toFloat(), wholeY.toFloat())
+        _scrollRequests.onNext(scrollDistanceMutableCache)
+    }
+
+    private fun isScrollMomentumActive() =
+        Math.abs(scrollVelocityX) >= MIN_SCROLL_MOMENTUM_PX_PER_MS || Math.abs(scrollVelocityY) >= MIN_SCROLL_MOMENTUM_PX_PER_MS
+
+    /**
+     * Continues the last scroll after the keys are released, slowing it down: if the engine can
+     * fling, it is asked to, once; otherwise this is called on each frame to scroll the page.
+     *
+     * @return whether the page is still scrolling, so this should be called on the next frame
+     */
+    private fun scrollWithMomentum(millisPassed: Float): Boolean {
+        val didFling = webViewFlingProvider?.invoke(
+                (scrollVelocityX * MS_PER_SECOND).toInt(),
+                (scrollVelocityY * MS_PER_SECOND).toInt()
+        ) ?: false
+        if (didFling) return false
+
+        // The velocity decays exponentially: integrate it exactly over the time passed.
+        val decay = Math.exp((-millisPassed / SCROLL_MOMENTUM_TIME_CONSTANT_MS).toDouble()).toFloat()
+        val distanceFactor = SCROLL_MOMENTUM_TIME_CONSTANT_MS * (1 - decay)
+        sendScrollRequest(scrollVelocityX * distanceFactor, scrollVelocityY * distanceFactor, millisPassed)
+        scrollVelocityX *= decay
+        scrollVelocityY *= decay
+        if (isScrollMomentumActive()) return true
+
+        flushScrollRequest()
+        return false
+    }
+
+    private fun stopScrollMomentum() {
+        scrollVelocityX = 0f
+        scrollVelocityY = 0f
+        scrollRemainderX = 0f
+        scrollRemainderY = 0f
+        millisSinceLastScrollRequest = MIN_MS_BETWEEN_SCROLL_REQUESTS
+    }
+
     /**
      * Mutates [oldPos] to its new position. This position is calculated based on the time passed
      * since the last update, in order to avoid miscalculations when dropping frames.
      *
-     * Calculates necessary scrolling, if any, and sends out a request to handle it.
+     * Also updates [lastVelocity].
      *
-     * @returns the new cursor velocity
+     * @returns the distance the cursor moved in each direction pressed, ignoring the screen bounds
      */
-    private fun internalMutatePositionAndReturnVelocity(
+    private fun internalMutatePositionAndReturnDistance(
         oldPos: PointF,
-        millisSinceLastMutation: Long,
-        oldVelocity: Float,
+        millisSinceLastMutation: Float,
         directionsPressed: Set<Direction>
     ): Float {
         // directionsPressed empty case is handled in `mutatePosition`
         require(directionsPressed.isNotEmpty())
         val screenBounds = screenBounds ?: return 0f
 
-        val accelerateBy = ACCELERATION_PER_MS * millisSinceLastMutation
-        val velocity = (oldVelocity + accelerateBy).coerceIn(0f, MAX_VELOCITY)
+        val distance = accelerateAndReturnDistance(millisSinceLastMutation)
+        // Scrolling isn't slowed down: the scroll distance is based on the returned distance.
+        val cursorDistance = if (isOverHitTarget(oldPos)) distance * MAGNETIC_VELOCITY_FACTOR else distance
 
         fun updatePosition() {
-            var verticalVelocity = 0f
-            if (directionKeysPressed.contains(Direction.UP)) verticalVelocity -= velocity
-            if (directionKeysPressed.contains(Direction.DOWN)) verticalVelocity += velocity
-            var horizontalVelocity = 0f
-            if (directionKeysPressed.contains(Direction.LEFT)) horizontalVelocity -= velocity
-            if (directionKeysPressed.contains(Direction.RIGHT)) horizontalVelocity += velocity
-            oldPos.x += horizontalVelocity
-            oldPos.y += verticalVelocity
+            var verticalDistance = 0f
+            if (directionKeysPressed.contains(Direction.UP)) verticalDistance -= cursorDistance
+            if (directionKeysPressed.contains(Direction.DOWN)) verticalDistance += cursorDistance
+            var horizontalDistance = 0f
+            if (directionKeysPressed.contains(Direction.LEFT)) horizontalDistance -= cursorDistance
+            if (directionKeysPressed.contains(Direction.RIGHT)) horizontalDistance += cursorDistance
+            oldPos.x += horizontalDistance
+            oldPos.y += verticalDistance
             oldPos.x = oldPos.x.coerceIn(0f, screenBounds.x)
             oldPos.y = oldPos.y.coerceIn(0f, screenBounds.y)
         }
 
         updatePosition()
 
-        return velocity
+        return distance
+    }
+
+    private fun isOverHitTarget(pos: PointF): Boolean =
+        hitTargets?.findNearestPoint(pos.x, pos.y, 0f, hitTargetPointMutableCache) == true
+
+    private fun snapToNearbyHitTarget(pos: PointF) {
+        val hitTargets = hitTargets ?: return
+        val screenBounds = screenBounds ?: return
+        if (hitTargets.findNearestPoint(pos.x, pos.y, MAGNETIC_SNAP_DISTANCE_PX, hitTargetPointMutableCache)) {
+            pos.x = hitTargetPointMutableCache.x.coerceIn(0f, screenBounds.x)
+            pos.y = hitTargetPointMutableCache.y.coerceIn(0f, screenBounds.y)
+        }
+    }
+
+    /**
+     * Accelerates [lastVelocity] for [millis] and returns the distance travelled meanwhile. The
+     * velocity is integrated exactly: it increases linearly up to [MAX_VELOCITY], then stays there.
+     */
+    private fun accelerateAndReturnDistance(millis: Float): Float {
+        val startVelocity = lastVelocity
+        val millisAccelerating = ((MAX_VELOCITY - startVelocity) / ACCELERATION_PER_MS).coerceIn(0f, millis)
+        val endVelocity = if (millisAccelerating < millis) {
+            MAX_VELOCITY
+        } else {
+            (startVelocity + ACCELERATION_PER_MS * millisAccelerating).coerceAtMost(MAX_VELOCITY)
+        }
+        lastVelocity = endVelocity
+
+        val accelerationDistance = (startVelocity + endVelocity) / 2 * millisAccelerating
+        val maxVelocityDistance = MAX_VELOCITY * (millis - millisAccelerating)
+        return (accelerationDistance + maxVelocityDistance) * FRAMES_PER_MS
     }
 
     /**
@@ -334,13 +539,16 @@ class CursorModel(
     }
 
     private fun resetCursorState() {
+        stopScrollMomentum()
         lastVelocity = INITIAL_VELOCITY
-        lastUpdatedAtMS = LAST_UPDATE_AT_MS_UNSET
+        lastUpdatedAtNanos = LAST_UPDATE_AT_NANOS_UNSET
         directionKeysPressed.clear()
     }
 
     // This is taken from older code.  Crufty, but it works
-    private fun getScrollDistance(scrollDistanceReturnValue: PointF, vel: Float, pos: PointF, framesPassed: Int) {
+    // The page scrolls by MAX_SCROLL_VELOCITY px per frame when the cursor would move MAX_VELOCITY px:
+    // the scroll distance is proportional to the distance the cursor would have moved past the edge.
+    private fun getScrollDistance(scrollDistanceReturnValue: PointF, distance: Float, pos: PointF) {
         val screenBounds = screenBounds
         if (screenBounds == null) {
             scrollDistanceReturnValue.x = 0f
@@ -348,30 +556,31 @@ class CursorModel(
             return
         }
 
-        var scrollVelX = 0f
-        var scrollVelY = 0f
-        if (vel > 0f) {
-            val percentMaxVel = vel / MAX_VELOCITY
+        var scrollX = 0f
+        var scrollY = 0f
+        if (distance > 0f) {
+            val scrollDistance = distance * MAX_SCROLL_VELOCITY / MAX_VELOCITY
             if (pos.x == 0f && directionKeysPressed.contains(Direction.LEFT)) {
-                scrollVelX = -percentMaxVel
+                scrollX = -scrollDistance
             } else if (pos.x == screenBounds.x && directionKeysPressed.contains(Direction.RIGHT)) {
-                scrollVelX = percentMaxVel
+                scrollX = scrollDistance
             }
 
             if (pos.y == 0f && directionKeysPressed.contains(Direction.UP)) {
-                scrollVelY = -percentMaxVel
+                scrollY = -scrollDistance
             } else if (pos.y == screenBounds.y && directionKeysPressed.contains(Direction.DOWN)) {
-                scrollVelY = percentMaxVel
+                scrollY = scrollDistance
             }
         }
 
-        scrollDistanceReturnValue.x = (scrollVelX * MAX_SCROLL_VELOCITY * framesPassed)
-        scrollDistanceReturnValue.y = (scrollVelY * MAX_SCROLL_VELOCITY * framesPassed)
+        scrollDistanceReturnValue.x = scrollX
+        scrollDistanceReturnValue.y = scrollY
     }
 
     @SuppressLint("CheckResult") // Does not need to be disposed as this survives for the duration of the app
     private fun attachResetStateObserver() {
         isCursorEnabledForAppState.subscribe { isCursorActive ->
+            isCursorEnabled = isCursorActive
             if (!isCursorActive) resetCursorState()
         }
     }
@@ -5,11 +5,14 @@
 package org.mozilla.tv.firefox.webrender.cursor
 
 import android.content.Context
-import android.graphics.Canvas
 import android.graphics.PointF
+import android.graphics.drawable.Drawable
 import android.util.AttributeSet
+import android.view.Choreographer
+import android.view.View
 import androidx.annotation.CheckResult
 import androidx.appcompat.widget.AppCompatImageView
+import androidx.core.content.ContextCompat
 import androidx.core.view.isVisible
 import io.reactivex.disposables.CompositeDisposable
 import io.reactivex.disposables.Disposable
@@ -28,18 +31,34 @@ private val HIDE_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(3)
  * For details on the cursor architecture, see the [CursorModel] kdoc.
  *
  * Any images set must be Bitmaps, not other Drawables.
+ *
+ * The cursor is drawn into its own hardware layer, which is only redrawn when its image changes:
+ * moving the cursor only sets the translation of its layer, and fading it only sets its alpha, so
+ * neither lays out nor redraws any view.
  */
-class CursorView(context: Context, attrs: AttributeSet) : AppCompatImageView(context, attrs) {
+class CursorView @JvmOverloads constructor(
+    context: Context,
+    attrs: AttributeSet? = null
+) : AppCompatImageView(context, attrs) {
 
     // This is a performance micro-optimization that avoid extra allocations, and should only be
-    // called from onDraw. This is safe because it is only called from the UI thread, and so
+    // called from onFrame. This is safe because it is only called from the UI thread, and so
     // cannot be accessed concurrently
-    private val onDrawMutablePositionCache = PointF(x, y)
+    private val onFrameMutablePositionCache = PointF(x, y)
 
     private var cursorModel: CursorModel? = null
 
+    // Allocated once: Choreographer recycles its own callback records, so posting this each frame
+    // doesn't allocate.
+    private val frameCallback = Choreographer.FrameCallback { frameTimeNanos -> onFrame(frameTimeNanos) }
+    private var isFrameCallbackPosted = false
+
+    private val pressedDrawable: Drawable? = ContextCompat.getDrawable(context, BITMAP_PRESSED)
+    private val unpressedDrawable: Drawable? = ContextCompat.getDrawable(context, BITMAP_UNPRESSED)
+
     init {
-        setImageResource(BITMAP_UNPRESSED)
+        setImageDrawable(unpressedDrawable)
+        setLayerType(LAYER_TYPE_HARDWARE, null)
     }
 
     @CheckResult(suggest = "Dispose me, please. 🥰")
@@ -61,7 +80,7 @@ class CursorView(context: Context, attrs: AttributeSet) : AppCompatImageView(con
                     if (cursorIsMovingOrPressed) {
                         animate().cancel()
                         alpha = 1f
-                        invalidate()
+                        postFrameCallback()
                     } else {
                         animate()
                                 .setStartDelay(HIDE_AFTER_MILLIS)
@@ -73,27 +92,59 @@ class CursorView(context: Context, attrs: AttributeSet) : AppCompatImageView(con
 
         cursorModel.isSelectPressed
                 .subscribe { pressed -> when (pressed) {
-                        true -> setImageResource(BITMAP_PRESSED)
-                        false -> setImageResource(BITMAP_UNPRESSED)
+                        true -> setImageDrawable(pressedDrawable)
+                        false -> setImageDrawable(unpressedDrawable)
                     } }.addTo(compositeDisposable)
 
+        // Sets the initial position.
+        if (isLaidOut) postFrameCallback()
+
         return compositeDisposable
     }
 
-    override fun onDraw(canvas: Canvas?) {
-        super.onDraw(canvas)
+    override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
+        super.onSizeChanged(w, h, oldw, oldh)
+        // The position is that of the center of this view: it can only be set once we have a size.
+        postFrameCallback()
+    }
+
+    override fun onWindowVisibilityChanged(visibility: Int) {
+        super.onWindowVisibilityChanged(visibility)
+        // Frames aren't drawn while the app is backgrounded, so we don't update the position either.
+        if (visibility == View.VISIBLE) postFrameCallback() else removeFrameCallback()
+    }
+
+    override fun onDetachedFromWindow() {
+        super.onDetachedFromWindow()
+        removeFrameCallback()
+    }
+
+    private fun postFrameCallback() {
+        if (isFrameCallbackPosted) return
+        isFrameCallbackPosted = true
+        Choreographer.getInstance().postFrameCallback(frameCallback)
+    }
+
+    private fun removeFrameCallback() {
+        Choreographer.getInstance().removeFrameCallback(frameCallback)
+        isFrameCallbackPosted = false
+    }
+
+    private fun onFrame(frameTimeNanos: Long) {
+        isFrameCallbackPosted = false
+
         // The amount that this view must be offset for it to appear centered
         // (otherwise the PointF we set would be its top left corner)
         val xOffset = width / 2
         val yOffset = height / 2
 
-        onDrawMutablePositionCache.set(x + xOffset, y + yOffset)
+        onFrameMutablePositionCache.set(x + xOffset, y + yOffset)
 
-        val shouldInvalidate = cursorModel?.mutatePosition(onDrawMutablePositionCache) ?: false
-        x = onDrawMutablePositionCache.x - xOffset
-        y = onDrawMutablePositionCache.y - yOffset
+        val shouldContinue = cursorModel?.mutatePosition(onFrameMutablePositionCache, frameTimeNanos) ?: false
+        // These only set the translation of this view's render node: see the class kdoc.
+        x = onFrameMutablePositionCache.x - xOffset
+        y = onFrameMutablePositionCache.y - yOffset
 
-        // This method will stop being called when the app is backgrounded.
-        if (shouldInvalidate) invalidate()
+        if (shouldContinue) postFrameCallback()
     }
 }
@@ -0,0 +1,164 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.webrender.cursor
+
+import android.graphics.PointF
+import androidx.annotation.VisibleForTesting
+
+private const val MIN_CELL_SIZE_PX = 128
+@VisibleForTesting internal const val MAX_CELL_COUNT = 1024
+// The cursor is snapped this far inside targets, if they're big enough, so it's clearly over them.
+private const val SNAP_INSET_PX = 4f
+
+/**
+ * An immutable uniform grid of rects, in page px, to find the rect nearest to a point without
+ * allocating: it is queried by the cursor on every frame.
+ *
+ * Each cell lists the rects that overlap it, so a query only checks the rects in the cells within
+ * its max distance. The lists are stored in a single array, indexed by [cellStarts], rather than
+ * as a list per cell.
+ *
+ * @param rects the rects, as consecutive left, top, right and bottom values.
+ */
+internal class HitTargetGrid(private val rects: IntArray) {
+
+    private val targetCount = rects.size / 4
+
+    private val gridLeft: Int
+    private val gridTop: Int
+    private val cellWidth: Float
+    private val cellHeight: Float
+    private val columnCount: Int
+    private val rowCount: Int
+
+    @VisibleForTesting internal val cellCount get() = columnCount * rowCount
+
+    // The rects in cell i are cellTargets[cellStarts[i] until cellStarts[i + 1]].
+    private val cellStarts: IntArray
+    private val cellTargets: IntArray
+
+    init {
+        require(rects.size % 4 == 0) { "Expected left, top, right and bottom values for each rect" }
+        require(hasValidSizes(rects)) { "Expected rects without negative widths or heights" }
+
+        var left = Int.MAX_VALUE
+        var top = Int.MAX_VALUE
+        var right = Int.MIN_VALUE
+        var bottom = Int.MIN_VALUE
+        for (target in 0 until targetCount) {
+            left = minOf(left, rects[target * 4])
+            top = minOf(top, rects[target * 4 + 1])
+            right = maxOf(right, rects[target * 4 + 2])
+            bottom = maxOf(bottom, rects[target * 4 + 3])
+        }
+
+        if (targetCount == 0) {
+            gridLeft = 0
+            gridTop = 0
+            columnCount = 1
+            rowCount = 1
+            cellWidth = MIN_CELL_SIZE_PX.toFloat()
+            cellHeight = MIN_CELL_SIZE_PX.toFloat()
+        } else {
+            gridLeft = left
+            gridTop = top
+            val width = right.toLong() - left + 1
+            val height = bottom.toLong() - top + 1
+            var columns = ceilDiv(width, MIN_CELL_SIZE_PX.toLong())
+            var rows = ceilDiv(height, MIN_CELL_SIZE_PX.toLong())
+            // Wider and taller cells on large pages, so there are at most MAX_CELL_COUNT.
+            if (columns * rows > MAX_CELL_COUNT) {
+                val scale = Math.sqrt(MAX_CELL_COUNT.toDouble() / (columns * rows))
+                columns = maxOf(1L, (columns * scale).toLong())
+                rows = (rows * scale).toLong().coerceIn(1L, MAX_CELL_COUNT / columns)
+            }
+            columnCount = columns.toInt()
+            rowCount = rows.toInt()
+            cellWidth = ceilDiv(width, columns).toFloat()
+            cellHeight = ceilDiv(height, rows).toFloat()
+        }
+
+        // Count the rects in each cell, then fill the cells in place.
+        cellStarts = IntArray(columnCount * rowCount + 1)
+        forEachCellOfTarget { cell, _ -> cellStarts[cell + 1]++ }
+        for (cell in 1 until cellStarts.size) {
+            cellStarts[cell] += cellStarts[cell - 1]
+        }
+        cellTargets = IntArray(cellStarts.last())
+        val cellFillCounts = IntArray(columnCount * rowCount)
+        forEachCellOfTarget { cell, target ->
+            cellTargets[cellStarts[cell] + cellFillCounts[cell]++] = target
+        }
+    }
+
+    private inline fun forEachCellOfTarget(action: (cell: Int, target: Int) -> Unit) {
+        for (target in 0 until targetCount) {
+            val firstColumn = getColumn(rects[target * 4].toFloat())
+            val firstRow = getRow(rects[target * 4 + 1].toFloat())
+            val lastColumn = getColumn(rects[target * 4 + 2].toFloat())
+            val lastRow = getRow(rects[target * 4 + 3].toFloat())
+            for (row in firstRow..lastRow) {
+                for (column in firstColumn..lastColumn) {
+                    action(row * columnCount + column, target)
+                }
+            }
+        }
+    }
+
+    private fun getColumn(x: Float) = ((x - gridLeft) / cellWidth).toInt().coerceIn(0, columnCount - 1)
+    private fun getRow(y: Float) = ((y - gridTop) / cellHeight).toInt().coerceIn(0, rowCount - 1)
+
+    /**
+     * Finds the rect nearest to the given point, if any is within [maxDistance] of it, and returns
+     * the point inside that rect nearest to the given point in [nearestPointReturnValue].
+     *
+     * @return whether a rect was found. If the point is inside a rect, it is always found.
+     */
+    fun findNearestPoint(x: Float, y: Float, maxDistance: Float, nearestPointReturnValue: PointF): Boolean {
+        if (targetCount == 0) return false
+
+        var nearestTarget = -1
+        var nearestDistanceSquared = maxDistance * maxDistance
+        for (row in getRow(y - maxDistance)..getRow(y + maxDistance)) {
+            for (column in getColumn(x - maxDistance)..getColumn(x + maxDistance)) {
+                val cell = row * columnCount + column
+                for (i in cellStarts[cell] until cellStarts[cell + 1]) {
+                    val target = cellTargets[i]
+                    val dx = maxOf(rects[target * 4] - x, x - rects[target * 4 + 2], 0f)
+                    val dy = maxOf(rects[target * 4 + 1] - y, y - rects[target * 4 + 3], 0f)
+                    val distanceSquared = dx * dx + dy * dy
+                    if (distanceSquared <= nearestDistanceSquared) {
+                        nearestTarget = target
+                        nearestDistanceSquared = distanceSquared
+                    }
+                }
+            }
+        }
+        if (nearestTarget == -1) return false
+
+        nearestPointReturnValue.x = x.coerceInInset(rects[nearestTarget * 4], rects[nearestTarget * 4 + 2])
+        nearestPointReturnValue.y = y.coerceInInset(rects[nearestTarget * 4 + 1], rects[nearestTarget * 4 + 3])
+        return true
+    }
+
+    companion object {
+        val EMPTY = HitTargetGrid(IntArray(0))
+
+        /** Returns whether none of the rects, as consecutive left, top, right and bottom values, is inside out. */
+        fun hasValidSizes(rects: IntArray): Boolean {
+            for (target in 0 until rects.size / 4) {
+                if (rects[target * 4 + 2] < rects[target * 4] || rects[target * 4 + 3] < rects[target * 4 + 1]) return false
+            }
+            return true
+        }
+    }
+}
+
+private fun ceilDiv(dividend: Long, divisor: Long) = (dividend + divisor - 1) / divisor
+
+private fun Float.coerceInInset(start: Int, end: Int): Float {
+    val inset = minOf(SNAP_INSET_PX, (end - start) / 2f)
+    return coerceIn(start + inset, end - inset)
+}
@@ -0,0 +1,76 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.webrender.cursor
+
+import android.graphics.PointF
+import android.webkit.JavascriptInterface
+import org.mozilla.tv.firefox.ext.Js
+
+const val HIT_TARGETS_JS_INTERFACE_IDENTIFIER = "_firefoxTV_hitTargetObserverJava"
+
+// Pages can call this interface too: ignore updates larger than the script sends, or with invalid rects.
+private const val MAX_TARGET_COUNT = 1000
+
+/**
+ * The clickable elements of the current page, which the magnetic cursor is drawn to: see
+ * [CursorModel.hitTargets].
+ *
+ * Their geometry is sent by [Js.JS_OBSERVE_HIT_TARGETS] through this [JavascriptInterface], in
+ * page px: when the page scrolls, only its new scroll position is sent. JavaScript calls this on a
+ * background thread, where each update is indexed in a new, immutable [HitTargetGrid]: the cursor
+ * reads the latest one on the UI thread.
+ */
+class HitTargets {
+
+    @Volatile private var grid = HitTargetGrid.EMPTY
+    @Volatile private var scrollX = 0
+    @Volatile private var scrollY = 0
+
+    /**
+     * Called by JavaScript with the rects of the clickable elements, in page px, and the scroll
+     * position of the page at the time.
+     *
+     * @param rects consecutive left, top, right and bottom values, separated by commas.
+     */
+    @JavascriptInterface
+    fun syncHitTargets(rects: String, scrollX: Int, scrollY: Int) {
+        val values = if (rects.isEmpty()) emptyList() else rects.split(',')
+        if (values.size % 4 != 0 || values.size > MAX_TARGET_COUNT * 4) return
+        // Values that aren't whole numbers, e.g. NaN or Infinity, aren't parsed.
+        val rectValues = IntArray(values.size) { values[it].toIntOrNull() ?: return }
+        if (!HitTargetGrid.hasValidSizes(rectValues)) return
+
+        syncScrollPosition(scrollX, scrollY)
+        grid = HitTargetGrid(rectValues)
+    }
+
+    /** Called by JavaScript with the scroll position of the page, in page px, when it scrolls. */
+    @JavascriptInterface
+    fun syncScrollPosition(scrollX: Int, scrollY: Int) {
+        this.scrollX = scrollX
+        this.scrollY = scrollY
+    }
+
+    /** Forgets the targets of the previous page: they are sent again when the new page loads. */
+    fun clear() {
+        grid = HitTargetGrid.EMPTY
+    }
+
+    /**
+     * Finds the target nearest to the given point on screen, if any is within [maxDistance] of it,
+     * and returns the point on screen inside that target nearest to the given point in
+     * [nearestPointReturnValue]. This doesn't allocate.
+     *
+     * @return whether a target was found. If the point is over a target, it is always found.
+     */
+    fun findNearestPoint(x: Float, y: Float, maxDistance: Float, nearestPointReturnValue: PointF): Boolean {
+        val scrollX = scrollX
+        val scrollY = scrollY
+        if (!grid.findNearestPoint(x + scrollX, y + scrollY, maxDistance, nearestPointReturnValue)) return false
+
+        nearestPointReturnValue.offset(-scrollX.toFloat(), -scrollY.toFloat())
+        return true
+    }
+}
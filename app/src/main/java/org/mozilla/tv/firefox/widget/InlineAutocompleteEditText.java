@@ -8,6 +8,7 @@ package org.mozilla.tv.firefox.widget;
 import android.content.Context;
 import android.graphics.Rect;
 import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
 import androidx.core.content.ContextCompat;
 import android.text.Editable;
 import android.text.NoCopySpan;
@@ -38,6 +39,11 @@ public class InlineAutocompleteEditText extends androidx.appcompat.widget.AppCom
         void onCommit();
     }
 
+    /**
+     * Called when the text changes. If view is non-null, the listener should look up a completion
+     * for searchText and pass it to {@link #onAutocomplete(String, AutocompleteResult)}, which may
+     * happen asynchronously.
+     */
     public interface OnFilterListener {
         void onFilter(String searchText, InlineAutocompleteEditText view);
     }
@@ -300,6 +306,27 @@ public class InlineAutocompleteEditText extends androidx.appcompat.widget.AppCom
         return true;
     }
 
+    /**
+     * Add autocomplete text based on a result that was looked up, possibly asynchronously, for the
+     * given text. The result is dropped if it's stale, i.e. the text has changed since the lookup
+     * was requested, or if we're in the middle of changing the autocomplete text ourselves.
+     *
+     * @param searchText The text the result was looked up for
+     * @param result Result URI to be turned into autocomplete text
+     */
+    @UiThread
+    public void onAutocomplete(@NonNull final String searchText, @NonNull final AutocompleteResult result) {
+        if (mSettingAutoComplete || mDiscardAutoCompleteResult) {
+            return;
+        }
+
+        if (!searchText.equals(getNonAutocompleteText(getText()))) {
+            return;
+        }
+
+        onAutocomplete(result);
+    }
+
     /**
      * Add autocomplete text based on the result URI.
      *
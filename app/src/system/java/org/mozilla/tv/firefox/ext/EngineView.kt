@@ -87,6 +87,10 @@ fun EngineView.observePlaybackState() {
     evalJS(JS_OBSERVE_PLAYBACK_STATE)
 }
 
+fun EngineView.observeHitTargets() {
+    evalJS(Js.JS_OBSERVE_HIT_TARGETS)
+}
+
 fun EngineView.observeScrollPosition() {
     evalJS(Js.MP4TranslationWorkaround.OBSERVE_SCROLL_POSITION)
 }
@@ -208,6 +212,21 @@ fun EngineView.scrollByClamped(vx: Int, vy: Int) {
     }
 }
 
+/**
+ * Flings the page with the given velocity, in px per second, so it scrolls and slows down on its own.
+ *
+ * @return whether the page was flung: false if there is nothing to fling.
+ */
+fun EngineView.flingScroll(vx: Int, vy: Int): Boolean {
+    val webView = webView ?: return false
+    val flingX = if (vx != 0 && webView.canScrollHorizontally(vx)) vx else 0
+    val flingY = if (vy != 0 && webView.canScrollVertically(vy)) vy else 0
+    if (flingX == 0 && flingY == 0) return false
+
+    webView.flingScroll(flingX, flingY)
+    return true
+}
+
 fun EngineView.couldScrollInDirection(direction: Direction): Boolean =
         when (direction) {
             Direction.UP -> webView?.canScrollVertically(-1)
@@ -0,0 +1,97 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.ObsoleteCoroutinesApi
+import kotlinx.coroutines.test.TestCoroutineContext
+import org.junit.Before
+import org.junit.Test
+import org.mozilla.tv.firefox.widget.InlineAutocompleteEditText
+import org.mozilla.tv.firefox.widget.InlineAutocompleteEditText.AutocompleteResult
+import java.util.concurrent.TimeUnit
+
+private const val DEBOUNCE_MILLIS = 50L
+
+/** Runs the debounce and lookups in virtual time, so the results don't depend on the machine's speed. */
+@ObsoleteCoroutinesApi // TestCoroutineContext: it's replaced in later versions of kotlinx.coroutines.
+class AsyncAutocompleteFilterListenerTest {
+
+    private lateinit var engine: AutocompleteEngine
+    private lateinit var view: InlineAutocompleteEditText
+    private lateinit var parentJob: Job
+    private lateinit var testContext: TestCoroutineContext
+    private lateinit var listener: AsyncAutocompleteFilterListener
+
+    @Before
+    fun setup() {
+        engine = mockk()
+        every { engine.getAutocompleteSuggestion(any()) } answers {
+            AutocompleteResult("${firstArg<String>()}.example", "default", 1)
+        }
+        view = mockk(relaxed = true)
+        parentJob = Job()
+        testContext = TestCoroutineContext()
+        listener = AsyncAutocompleteFilterListener(engine, parentJob, testContext, testContext, DEBOUNCE_MILLIS)
+    }
+
+    @Test
+    fun `WHEN text is filtered THEN the result is delivered for that text after the debounce`() {
+        listener.onFilter("moz", view)
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS - 1, TimeUnit.MILLISECONDS)
+        verify(exactly = 0) { engine.getAutocompleteSuggestion(any()) }
+
+        testContext.advanceTimeBy(1, TimeUnit.MILLISECONDS)
+        verify(exactly = 1) { view.onAutocomplete("moz", match { it.text == "moz.example" }) }
+    }
+
+    @Test
+    fun `WHEN text is filtered again before the debounce THEN only the latest text is looked up`() {
+        listener.onFilter("m", view)
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS - 1, TimeUnit.MILLISECONDS)
+        listener.onFilter("mo", view)
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS - 1, TimeUnit.MILLISECONDS)
+        listener.onFilter("moz", view)
+
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS * 2, TimeUnit.MILLISECONDS)
+        verify(exactly = 0) { engine.getAutocompleteSuggestion("m") }
+        verify(exactly = 0) { engine.getAutocompleteSuggestion("mo") }
+        verify(exactly = 1) { view.onAutocomplete(any(), any()) }
+        verify(exactly = 1) { view.onAutocomplete("moz", any()) }
+    }
+
+    @Test
+    fun `WHEN text is filtered without autocomplete THEN the pending lookup is cancelled`() {
+        listener.onFilter("moz", view)
+        listener.onFilter("mo", null)
+
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS * 2, TimeUnit.MILLISECONDS)
+        verify(exactly = 0) { engine.getAutocompleteSuggestion(any()) }
+        verify(exactly = 0) { view.onAutocomplete(any(), any()) }
+    }
+
+    @Test
+    fun `WHEN the UI is torn down THEN the pending lookup is cancelled`() {
+        listener.onFilter("moz", view)
+        parentJob.cancel()
+
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS * 2, TimeUnit.MILLISECONDS)
+        verify(exactly = 0) { engine.getAutocompleteSuggestion(any()) }
+        verify(exactly = 0) { view.onAutocomplete(any(), any()) }
+    }
+
+    @Test
+    fun `WHEN there is no completion THEN nothing is delivered`() {
+        every { engine.getAutocompleteSuggestion(any()) } returns null
+        listener.onFilter("moz", view)
+
+        testContext.advanceTimeBy(DEBOUNCE_MILLIS * 2, TimeUnit.MILLISECONDS)
+        verify(exactly = 1) { engine.getAutocompleteSuggestion("moz") }
+        verify(exactly = 0) { view.onAutocomplete(any(), any()) }
+    }
+}
@@ -0,0 +1,119 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import io.reactivex.Single
+import io.reactivex.subjects.BehaviorSubject
+import io.reactivex.subjects.SingleSubject
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+import org.mozilla.tv.firefox.helpers.RxTestHelper
+
+private val SHIPPED_DOMAINS = listOf("google.com", "wikipedia.org", "www.mozilla.org", "mozilla.com", "youtube.com")
+
+class AutocompleteEngineTest {
+
+    companion object {
+        @BeforeClass
+        @JvmStatic
+        fun beforeClass() {
+            RxTestHelper.forceRxSynchronousInBeforeClass()
+        }
+    }
+
+    private lateinit var pinnedUrls: BehaviorSubject<List<String>>
+    private lateinit var historyHosts: BehaviorSubject<List<String>>
+    private lateinit var engine: AutocompleteEngine
+
+    @Before
+    fun setup() {
+        pinnedUrls = BehaviorSubject.createDefault(emptyList())
+        historyHosts = BehaviorSubject.createDefault(emptyList())
+        engine = AutocompleteEngine(Single.just(SHIPPED_DOMAINS), pinnedUrls, historyHosts)
+    }
+
+    @Test
+    fun `WHEN the query is a prefix of a shipped domain THEN it is completed`() {
+        assertCompletion("google.com", AutocompleteSource.SHIPPED_DOMAINS, "goo")
+        assertCompletion("mozilla.org", AutocompleteSource.SHIPPED_DOMAINS, "mozilla.")
+        assertCompletion("mozilla.com", AutocompleteSource.SHIPPED_DOMAINS, "mozilla.c")
+        assertNull(engine.getAutocompleteSuggestion("mozilla.net"))
+    }
+
+    @Test
+    fun `WHEN the query is a prefix of www and a domain THEN the www completion is preferred`() {
+        assertCompletion("www.google.com", AutocompleteSource.SHIPPED_DOMAINS, "w")
+        assertCompletion("www.wikipedia.org", AutocompleteSource.SHIPPED_DOMAINS, "www.w")
+        assertCompletion("wikipedia.org", AutocompleteSource.SHIPPED_DOMAINS, "wi")
+    }
+
+    @Test
+    fun `WHEN the query has different casing THEN the typed text keeps its casing`() {
+        val result = engine.getAutocompleteSuggestion("YouT")!!
+        assertEquals("YouTube.com", result.text)
+    }
+
+    @Test
+    fun `WHEN a site is pinned or visited THEN it is preferred over shipped domains`() {
+        assertCompletion("mozilla.org", AutocompleteSource.SHIPPED_DOMAINS, "mo")
+
+        historyHosts.onNext(listOf("mobile.twitter.com"))
+        assertCompletion("mobile.twitter.com", AutocompleteSource.HISTORY, "mo")
+
+        pinnedUrls.onNext(listOf("https://www.monterey.example/tiles?a=b"))
+        assertCompletion("monterey.example", AutocompleteSource.PINNED_TILES, "mo")
+        assertCompletion("mobile.twitter.com", AutocompleteSource.HISTORY, "mob")
+    }
+
+    @Test
+    fun `WHEN history is re-ranked THEN higher ranked hosts are preferred`() {
+        historyHosts.onNext(listOf("example.org", "example.com"))
+        assertCompletion("example.org", AutocompleteSource.HISTORY, "exa")
+
+        historyHosts.onNext(listOf("example.com", "example.org"))
+        assertCompletion("example.com", AutocompleteSource.HISTORY, "exa")
+        assertEquals(2, engine.getAutocompleteSuggestion("exa")!!.totalItems)
+    }
+
+    @Test
+    fun `WHEN the query is narrowed, widened or changed THEN results match a fresh lookup`() {
+        val queries = listOf("w", "wi", "wik", "wikz", "wik", "y", "yo", "YOU", "you", "g", "google.co", "google.com", "google.com/", "m", "")
+        val fresh = { query: String ->
+            AutocompleteEngine(Single.just(SHIPPED_DOMAINS), pinnedUrls, historyHosts).getAutocompleteSuggestion(query)?.text
+        }
+
+        queries.forEach {
+            assertEquals(it, fresh(it), engine.getAutocompleteSuggestion(it)?.text)
+        }
+    }
+
+    @Test
+    fun `WHEN an index changes between lookups THEN the new index is used`() {
+        assertCompletion("google.com", AutocompleteSource.SHIPPED_DOMAINS, "g")
+        pinnedUrls.onNext(listOf("https://github.com"))
+        assertCompletion("github.com", AutocompleteSource.PINNED_TILES, "gi")
+    }
+
+    @Test
+    fun `WHEN shipped domains are not loaded yet THEN other sources still complete`() {
+        val shippedDomains = SingleSubject.create<List<String>>()
+        engine = AutocompleteEngine(shippedDomains, BehaviorSubject.createDefault(listOf("mozilla.org")), historyHosts)
+        assertNull(engine.getAutocompleteSuggestion("goo"))
+        assertCompletion("mozilla.org", AutocompleteSource.PINNED_TILES, "moz")
+
+        shippedDomains.onSuccess(SHIPPED_DOMAINS)
+        assertCompletion("google.com", AutocompleteSource.SHIPPED_DOMAINS, "goo")
+        assertEquals(SHIPPED_DOMAINS.size, engine.getAutocompleteSuggestion("goo")!!.totalItems)
+    }
+
+    private fun assertCompletion(expectedText: String, expectedSource: AutocompleteSource, query: String) {
+        val result = engine.getAutocompleteSuggestion(query)!!
+        assertEquals(expectedText, result.text)
+        assertEquals(expectedSource.telemetryName, result.source)
+    }
+}
@@ -0,0 +1,172 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.autocomplete
+
+import io.reactivex.schedulers.TestScheduler
+import io.reactivex.subjects.PublishSubject
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import org.mozilla.tv.firefox.helpers.RxTestHelper
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+@RunWith(FirefoxRobolectricTestRunner::class) // For android.util.Log.
+class FrecencyHistoryStoreTest {
+
+    companion object {
+        private lateinit var testScheduler: TestScheduler
+
+        @BeforeClass
+        @JvmStatic
+        fun beforeClass() {
+            testScheduler = RxTestHelper.forceRxTestSchedulerInBeforeClass()
+        }
+    }
+
+    @get:Rule val folder = TemporaryFolder()
+
+    private lateinit var file: File
+    private lateinit var visitedUrls: PublishSubject<String>
+    private var nowMillis = TimeUnit.DAYS.toMillis(365)
+
+    @Before
+    fun setup() {
+        file = File(folder.root, "history")
+        visitedUrls = PublishSubject.create()
+    }
+
+    @After
+    fun tearDown() {
+        // Flush pending saves while the folder still exists: the scheduler is shared between tests.
+        testScheduler.advanceTimeBy(1, TimeUnit.MINUTES)
+    }
+
+    @Test
+    fun `WHEN hosts are visited THEN they are ranked by visit count`() {
+        val store = newStore()
+        visit("https://a.example/", "https://b.example/1", "https://b.example/2", "https://www.c.example/")
+        visit("https://b.example/3", "https://c.example/1")
+
+        assertEquals(listOf("b.example", "c.example", "a.example"), store.rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN visits are older THEN they count for less`() {
+        val store = newStore()
+        visit("https://old.example/1", "https://old.example/2", "https://old.example/3")
+        nowMillis += HALF_LIFE_MILLIS * 2 // Three visits decay to 0.75.
+        visit("https://new.example/")
+
+        assertEquals(listOf("new.example", "old.example"), store.rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN visits are very old THEN they are forgotten`() {
+        val store = newStore()
+        visit("https://old.example/")
+        nowMillis += HALF_LIFE_MILLIS * 10
+        visit("https://new.example/")
+
+        assertEquals(listOf("new.example"), store.rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN more hosts are visited than can be stored THEN the least frecent are dropped`() {
+        val store = newStore()
+        visit("https://frequent.example/1", "https://frequent.example/2")
+        (0 until MAX_HOSTS).forEach {
+            nowMillis += 1
+            visit("https://host$it.example/")
+        }
+
+        val rankedHosts = store.rankedHosts.blockingFirst()
+        assertEquals(MAX_HOSTS, rankedHosts.size)
+        assertEquals("frequent.example", rankedHosts.first())
+        assertEquals("host${MAX_HOSTS - 1}.example", rankedHosts[1])
+    }
+
+    @Test
+    fun `WHEN pages are not web pages THEN they are not recorded`() {
+        val store = newStore()
+        visit("file:///sdcard/mozilla.html", "about:home", "data:text/html;charset=utf-8;base64,")
+
+        assertEquals(emptyList<String>(), store.rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN the store is recreated THEN saved history is loaded`() {
+        newStore()
+        visit("https://a.example/", "https://b.example/1", "https://b.example/2")
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+
+        visitedUrls = PublishSubject.create()
+        assertEquals(listOf("b.example", "a.example"), newStore().rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN history is cleared THEN it is empty and stays empty after reloading`() {
+        val store = newStore()
+        visit("https://a.example/")
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+
+        store.clear()
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+        assertEquals(emptyList<String>(), store.rankedHosts.blockingFirst())
+
+        visitedUrls = PublishSubject.create()
+        assertEquals(emptyList<String>(), newStore().rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN history is cleared before it loads THEN the file is deleted and it stays empty`() {
+        newStore()
+        visit("https://a.example/")
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+        assertTrue(file.exists())
+
+        visitedUrls = PublishSubject.create()
+        val store = FrecencyHistoryStore(file, visitedUrls) { nowMillis } // Loads on the next trigger.
+        store.clear()
+        assertFalse(file.exists())
+        assertFalse(File(file.path + ".tmp").exists())
+
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+        assertEquals(emptyList<String>(), store.rankedHosts.blockingFirst())
+        visitedUrls = PublishSubject.create()
+        assertEquals(emptyList<String>(), newStore().rankedHosts.blockingFirst())
+    }
+
+    @Test
+    fun `WHEN the saved history is corrupt THEN the store starts empty`() {
+        file.writeText("not history")
+        val store = newStore()
+        assertEquals(emptyList<String>(), store.rankedHosts.blockingFirst())
+
+        visit("https://a.example/")
+        assertEquals(listOf("a.example"), store.rankedHosts.blockingFirst())
+    }
+
+    private fun newStore(): FrecencyHistoryStore {
+        return FrecencyHistoryStore(file, visitedUrls) { nowMillis }.also {
+            testScheduler.triggerActions()
+        }
+    }
+
+    private fun visit(vararg urls: String) {
+        urls.forEach {
+            visitedUrls.onNext(it)
+            testScheduler.triggerActions()
+        }
+    }
+}
@@ -40,7 +40,7 @@ class ChannelRepoTest {
     @Before
     fun setup() {
         MockKAnnotations.init(this)
-        every { pinnedTileRepo.pinnedTiles } answers { Observable.just(LinkedHashMap()) }
+        every { pinnedTileRepo.pinnedTileChanges } answers { Observable.just(emptyList()) }
 
         channelRepo = ChannelRepo(ApplicationProvider.getApplicationContext(), imageUtilWrapper, formattedDomainWrapper, pinnedTileRepo)
     }
@@ -0,0 +1,168 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels
+
+import android.content.Context
+import android.widget.FrameLayout
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.core.app.ApplicationProvider
+import io.reactivex.Scheduler
+import io.reactivex.schedulers.Schedulers
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.AfterClass
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.R
+import org.mozilla.tv.firefox.architecture.KillswitchLocales
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import org.mozilla.tv.firefox.helpers.RxTestHelper
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class DefaultChannelAdapterTest {
+
+    companion object {
+        private lateinit var defaultDiffScheduler: Scheduler
+
+        @BeforeClass
+        @JvmStatic
+        fun beforeClass() {
+            RxTestHelper.forceRxSynchronousInBeforeClass()
+            defaultDiffScheduler = DefaultChannelAdapter.diffScheduler
+            DefaultChannelAdapter.diffScheduler = Schedulers.trampoline()
+        }
+
+        @AfterClass
+        @JvmStatic
+        fun afterClass() {
+            DefaultChannelAdapter.diffScheduler = defaultDiffScheduler
+        }
+    }
+
+    private lateinit var context: Context
+    private lateinit var config: ChannelConfig
+    private lateinit var adapter: DefaultChannelAdapter
+    private lateinit var notifications: MutableList<String>
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        config = ChannelConfig(isEnabledInCurrentExperiment = true, enabledInLocales = KillswitchLocales.All)
+        adapter = DefaultChannelAdapter(context, {}, null, config)
+
+        notifications = mutableListOf()
+        adapter.registerAdapterDataObserver(object : RecyclerView.AdapterDataObserver() {
+            override fun onItemRangeInserted(positionStart: Int, itemCount: Int) {
+                notifications.add("insert $positionStart $itemCount")
+            }
+
+            override fun onItemRangeRemoved(positionStart: Int, itemCount: Int) {
+                notifications.add("remove $positionStart $itemCount")
+            }
+
+            override fun onItemRangeMoved(fromPosition: Int, toPosition: Int, itemCount: Int) {
+                notifications.add("move $fromPosition $toPosition")
+            }
+
+            override fun onItemRangeChanged(positionStart: Int, itemCount: Int, payload: Any?) {
+                notifications.add("change $positionStart $itemCount $payload")
+            }
+        })
+    }
+
+    @Test
+    fun `WHEN tiles are inserted before a tile THEN its item id does not change`() {
+        val (a, b, c) = listOf("a", "b", "c").map { tile(it) }
+        adapter.submitList(listOf(a, b))
+        val idOfB = adapter.getItemId(1)
+        assertNotEquals(adapter.getItemId(0), idOfB)
+
+        adapter.submitList(listOf(c, a, b))
+
+        assertEquals(idOfB, adapter.getItemId(2))
+        assertTrue(adapter.hasStableIds())
+    }
+
+    @Test
+    fun `WHEN the title of a tile changes THEN the tile is changed with a title payload`() {
+        adapter.submitList(listOf(tile("a"), tile("b")))
+        notifications.clear()
+
+        adapter.submitList(listOf(tile("a"), tile("b", title = "New title")))
+
+        assertEquals(listOf("change 1 1 $PAYLOAD_TITLE"), notifications)
+    }
+
+    @Test
+    fun `WHEN the image of a tile changes THEN the tile is changed with an image payload`() {
+        adapter.submitList(listOf(tile("a")))
+        notifications.clear()
+
+        adapter.submitList(listOf(tile("a", imageId = 2)))
+
+        assertEquals(listOf("change 0 1 $PAYLOAD_IMAGE"), notifications)
+    }
+
+    @Test
+    fun `WHEN changes are submitted with the tiles THEN they are notified as they are`() {
+        val (a, b, c) = listOf("a", "b", "c").map { tile(it) }
+        adapter.submitList(listOf(a, b))
+        notifications.clear()
+
+        adapter.submitList(listOf(b, c), listOf(ListChange.Remove(0), ListChange.Insert(1, c)))
+
+        assertEquals(listOf("remove 0 1", "insert 1 1"), notifications)
+        assertEquals(2, adapter.itemCount)
+    }
+
+    @Test
+    fun `WHEN inconsistent changes are submitted with the tiles THEN the tiles are compared instead`() {
+        val (a, b, c) = listOf("a", "b", "c").map { tile(it) }
+        adapter.submitList(listOf(a, b))
+        notifications.clear()
+
+        adapter.submitList(listOf(a, b, c), listOf(ListChange.Remove(5)))
+
+        assertEquals(listOf("insert 2 1"), notifications)
+        assertEquals(3, adapter.itemCount)
+    }
+
+    @Test
+    fun `WHEN a view holder is bound by another channel THEN its clicks are handled by that channel`() {
+        val loadedUrls = mutableListOf<String>()
+        val firstAdapter = DefaultChannelAdapter(context, { loadedUrls.add("first $it") }, null, config)
+        val secondAdapter = DefaultChannelAdapter(context, { loadedUrls.add("second $it") }, null, config)
+        firstAdapter.submitList(listOf(tile("a", imageId = R.drawable.tile_sports_formula_1)))
+        secondAdapter.submitList(listOf(tile("b", imageId = R.drawable.tile_sports_formula_1)))
+
+        // As if the holder was shared through a RecycledViewPool.
+        val holder = firstAdapter.createViewHolder(FrameLayout(context), 0)
+        firstAdapter.bindViewHolder(holder, 0)
+        secondAdapter.bindViewHolder(holder, 0)
+        holder.itemView.performClick()
+
+        assertEquals(listOf("second b"), loadedUrls)
+    }
+
+    @Test
+    fun `WHEN a tile without a position changes focus THEN the focus change is not emitted`() {
+        adapter.submitList(listOf(tile("a", imageId = R.drawable.tile_sports_formula_1)))
+        val focusChanges = adapter.focusChangeObservable.test()
+
+        // Not in a RecyclerView, as during a layout pass or a removal, so it has no adapter position.
+        val holder = adapter.createViewHolder(FrameLayout(context), 0)
+        adapter.bindViewHolder(holder, 0)
+        holder.itemView.onFocusChangeListener.onFocusChange(holder.itemView, true)
+
+        assertEquals(RecyclerView.NO_POSITION, holder.adapterPosition)
+        focusChanges.assertNoValues()
+    }
+}
+
+private fun tile(url: String, title: String = url, imageId: Int = 1) =
+    ChannelTile(url, title, null, ImageSetStrategy.ById(imageId), TileSource.BUNDLED, url)
@@ -0,0 +1,97 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import java.util.Random
+
+class IncrementalChannelTileMapperTest {
+
+    private lateinit var mappedUrls: MutableList<String>
+    private lateinit var mapper: IncrementalChannelTileMapper<String>
+
+    @Before
+    fun setUp() {
+        mappedUrls = mutableListOf()
+        mapper = IncrementalChannelTileMapper { url ->
+            mappedUrls.add(url)
+            fakeChannelTile(url)
+        }
+    }
+
+    @Test
+    fun `WHEN a tile is inserted THEN only that tile is mapped`() {
+        mapper.applyChanges(insertAll("a", "b", "c"))
+        mappedUrls.clear()
+
+        val tileList = mapper.applyChanges(listOf(ListChange.Insert(1, "d")))
+
+        assertEquals(listOf("d"), mappedUrls)
+        assertEquals(listOf("a", "d", "b", "c"), tileList.tiles.map { it.url })
+        assertEquals(listOf(ListChange.Insert(1, fakeChannelTile("d"))), tileList.changes)
+    }
+
+    @Test
+    fun `WHEN tiles are blacklisted THEN they are hidden and changes are relative to the visible tiles`() {
+        mapper.applyBlacklist(setOf("a", "c"))
+        val initialTileList = mapper.applyChanges(insertAll("a", "b", "c", "d"))
+        assertEquals(listOf("b", "d"), initialTileList.tiles.map { it.url })
+
+        val tileList = mapper.applyChanges(listOf(ListChange.Remove(3), ListChange.Insert(3, "e"), ListChange.Remove(2)))
+
+        assertEquals(listOf("b", "e"), tileList.tiles.map { it.url })
+        assertEquals(listOf(ListChange.Remove(1), ListChange.Insert(1, fakeChannelTile("e"))), tileList.changes)
+    }
+
+    @Test
+    fun `WHEN the blacklist changes THEN no changes are given`() {
+        mapper.applyChanges(insertAll("a", "b"))
+
+        val tileList = mapper.applyBlacklist(setOf("a"))
+
+        assertEquals(listOf("b"), tileList.tiles.map { it.url })
+        assertNull(tileList.changes)
+    }
+
+    @Test
+    fun `WHEN random changes are applied THEN the changes given rebuild the visible tiles`() {
+        val random = Random(0)
+        mapper.applyBlacklist(setOf("url0", "url3", "url7"))
+        val items = mutableListOf<String>()
+        val visibleTiles = mutableListOf<ChannelTile>()
+
+        repeat(500) { i ->
+            val changes = mutableListOf<ListChange<String>>()
+            repeat(1 + random.nextInt(3)) {
+                val change = when {
+                    items.isEmpty() || random.nextInt(3) == 0 -> ListChange.Insert(random.nextInt(items.size + 1), "url${i % 10}")
+                    random.nextBoolean() -> ListChange.Remove(random.nextInt(items.size))
+                    else -> ListChange.Move(random.nextInt(items.size), random.nextInt(items.size))
+                }
+                items.applyChanges(listOf(change))
+                changes.add(change)
+            }
+
+            val tileList = mapper.applyChanges(changes)
+            visibleTiles.applyChanges(tileList.changes!!)
+            assertEquals(tileList.tiles, visibleTiles)
+            assertEquals(items.filter { it !in setOf("url0", "url3", "url7") }, tileList.tiles.map { it.url })
+        }
+    }
+
+    private fun insertAll(vararg urls: String) = urls.mapIndexed { i, url -> ListChange.Insert(i, url) }
+}
+
+private fun fakeChannelTile(url: String) = ChannelTile(
+    url = url,
+    title = url,
+    subtitle = null,
+    setImage = ImageSetStrategy.ById(0),
+    tileSource = TileSource.BUNDLED,
+    id = url
+)
@@ -0,0 +1,108 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import android.content.Context
+import android.content.SharedPreferences
+import androidx.test.core.app.ApplicationProvider
+import io.reactivex.schedulers.Schedulers
+import org.json.JSONArray
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import java.io.File
+import java.util.UUID
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class CustomPinnedTileStoreTest {
+
+    @get:Rule val folder = TemporaryFolder()
+
+    private lateinit var file: File
+    private lateinit var preferences: SharedPreferences
+
+    @Before
+    fun setup() {
+        file = File(folder.root, "tiles")
+        val appContext: Context = ApplicationProvider.getApplicationContext()
+        preferences = appContext.getSharedPreferences("CustomPinnedTileStoreTest", Context.MODE_PRIVATE)
+    }
+
+    @Test
+    fun `WHEN nothing has been stored THEN no tiles are loaded`() {
+        assertEquals(emptyList<String>(), newStore().load().keys.toList())
+    }
+
+    @Test
+    fun `WHEN tiles are added and removed THEN the remaining tiles are loaded in the order they were added`() {
+        val store = newStore().apply { load() }
+        val tiles = (0 until 5).map { newTile("https://example$it.com") }
+        tiles.forEach { store.add(it) }
+        store.remove(tiles[1])
+        store.remove(tiles[3])
+
+        val loaded = newStore().load()
+        assertEquals(listOf(tiles[0], tiles[2], tiles[4]).map { it.url }, loaded.keys.toList())
+        assertEquals(tiles[2].id, loaded[tiles[2].url]!!.id)
+        assertEquals(tiles[2].title, loaded[tiles[2].url]!!.title)
+    }
+
+    @Test
+    fun `WHEN tiles were stored in the legacy preference THEN they are migrated`() {
+        val tiles = listOf(newTile("https://mozilla.org"), newTile("https://example.com"))
+        val tilesJSONArray = JSONArray().apply { tiles.forEach { put(it.toJSONObject()) } }
+        preferences.edit().putString(LEGACY_CUSTOM_SITES_LIST, tilesJSONArray.toString()).commit()
+
+        assertEquals(tiles.map { it.url }, newStore().load().keys.toList())
+        assertFalse(preferences.contains(LEGACY_CUSTOM_SITES_LIST))
+
+        val reloaded = newStore().load()
+        assertEquals(tiles.map { it.url }, reloaded.keys.toList())
+        assertEquals(tiles.map { it.id }, reloaded.values.map { it.id })
+    }
+
+    @Test
+    fun `WHEN the last record is torn THEN the tiles before it are loaded`() {
+        val store = newStore().apply { load() }
+        val tile = newTile("https://mozilla.org")
+        store.add(tile)
+        store.add(newTile("https://example.com"))
+        file.writeBytes(file.readBytes().copyOf(file.length().toInt() - 3))
+
+        assertEquals(listOf(tile.url), newStore().load().keys.toList())
+
+        // The torn record is removed so new records can be read after it.
+        val addedTile = newTile("https://example.org")
+        newStore().add(addedTile)
+        assertEquals(listOf(tile.url, addedTile.url), newStore().load().keys.toList())
+    }
+
+    @Test
+    fun `WHEN many tiles have been removed THEN the log is compacted`() {
+        val store = newStore().apply { load() }
+        val keptTile = newTile("https://mozilla.org")
+        store.add(keptTile)
+        repeat(MIN_STALE_RECORDS_TO_COMPACT) {
+            val tile = newTile("https://example$it.com")
+            store.add(tile)
+            store.remove(tile)
+        }
+        val uncompactedLength = file.length()
+
+        assertEquals(listOf(keptTile.url), newStore().load().keys.toList())
+        assertTrue(file.length() < uncompactedLength / 10)
+        assertEquals(listOf(keptTile.url), newStore().load().keys.toList())
+    }
+
+    private fun newStore() = CustomPinnedTileStore(file, preferences, Schedulers.trampoline())
+
+    private fun newTile(url: String) = CustomPinnedTile(url, "custom", UUID.randomUUID())
+}
@@ -0,0 +1,98 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import android.graphics.Bitmap
+import org.junit.After
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import java.util.UUID
+
+private const val BITMAP_BYTES = 10 * 10 * 4
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class PinnedTileBitmapCacheTest {
+
+    @Before
+    fun setUp() {
+        PinnedTileBitmapCache.onLowMemory()
+        PinnedTileBitmapCache.resize(BITMAP_BYTES * 2)
+    }
+
+    @After
+    fun tearDown() {
+        PinnedTileBitmapCache.onLowMemory()
+        PinnedTileBitmapCache.resize()
+    }
+
+    @Test
+    fun `WHEN a bitmap is put THEN it can be gotten until it is removed`() {
+        val uuid = UUID.randomUUID()
+        val bitmap = newBitmap()
+        PinnedTileBitmapCache.put(uuid, bitmap)
+        assertSame(bitmap, PinnedTileBitmapCache.get(uuid))
+
+        PinnedTileBitmapCache.remove(uuid)
+        assertNull(PinnedTileBitmapCache.get(uuid))
+    }
+
+    @Test
+    fun `WHEN the cache is full THEN the least recently used bitmap is evicted and can be reused`() {
+        val uuids = List(3) { UUID.randomUUID() }
+        val bitmaps = List(3) { newBitmap() }
+        PinnedTileBitmapCache.put(uuids[0], bitmaps[0])
+        PinnedTileBitmapCache.put(uuids[1], bitmaps[1])
+        PinnedTileBitmapCache.get(uuids[0])
+        PinnedTileBitmapCache.put(uuids[2], bitmaps[2])
+
+        assertNull(PinnedTileBitmapCache.get(uuids[1]))
+        assertSame(bitmaps[0], PinnedTileBitmapCache.get(uuids[0]))
+        assertSame(bitmaps[1], PinnedTileBitmapCache.takeReusableBitmap { false })
+        assertNull(PinnedTileBitmapCache.takeReusableBitmap { false })
+    }
+
+    @Test
+    fun `WHEN a reusable bitmap is in use THEN it is not taken`() {
+        val bitmap = newBitmap()
+        PinnedTileBitmapCache.offerReusableBitmap(bitmap)
+
+        assertNull(PinnedTileBitmapCache.takeReusableBitmap { it === bitmap })
+        assertSame(bitmap, PinnedTileBitmapCache.takeReusableBitmap { false })
+    }
+
+    @Test
+    fun `WHEN a bitmap is removed THEN it is not reused`() {
+        val uuid = UUID.randomUUID()
+        PinnedTileBitmapCache.put(uuid, newBitmap())
+        PinnedTileBitmapCache.remove(uuid)
+
+        assertNull(PinnedTileBitmapCache.takeReusableBitmap { false })
+    }
+
+    @Test
+    fun `WHEN a bitmap is immutable THEN it is not reused`() {
+        PinnedTileBitmapCache.offerReusableBitmap(newBitmap().copy(Bitmap.Config.ARGB_8888, false))
+
+        assertNull(PinnedTileBitmapCache.takeReusableBitmap { false })
+    }
+
+    @Test
+    fun `WHEN memory is low THEN the cache and reusable bitmaps are cleared`() {
+        val uuid = UUID.randomUUID()
+        PinnedTileBitmapCache.put(uuid, newBitmap())
+        PinnedTileBitmapCache.offerReusableBitmap(newBitmap())
+
+        PinnedTileBitmapCache.onLowMemory()
+
+        assertNull(PinnedTileBitmapCache.get(uuid))
+        assertNull(PinnedTileBitmapCache.takeReusableBitmap { false })
+    }
+
+    private fun newBitmap() = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888)
+}
@@ -0,0 +1,49 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.channels.pinnedtile
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+
+private const val CORNER_RADIUS_PX = 12f
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class PinnedTilePlaceholderGeneratorTest {
+
+    private lateinit var context: Context
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+    }
+
+    @Test
+    fun `WHEN generating placeholders for urls with the same representative character THEN the same bitmap is returned`() {
+        val placeholder = PinnedTilePlaceholderGenerator.generate(context, "https://mozilla.org", CORNER_RADIUS_PX)
+
+        assertSame(placeholder, PinnedTilePlaceholderGenerator.generate(context, "https://mozilla.org", CORNER_RADIUS_PX))
+        assertSame(placeholder, PinnedTilePlaceholderGenerator.generate(context, "https://www.mdn.io", CORNER_RADIUS_PX))
+    }
+
+    @Test
+    fun `WHEN generating placeholders for urls with different representative characters THEN different bitmaps are returned`() {
+        assertNotSame(
+                PinnedTilePlaceholderGenerator.generate(context, "https://mozilla.org", CORNER_RADIUS_PX),
+                PinnedTilePlaceholderGenerator.generate(context, "https://wikipedia.org", CORNER_RADIUS_PX))
+    }
+
+    @Test
+    fun `WHEN generating placeholders with different corner radii THEN different bitmaps are returned`() {
+        assertNotSame(
+                PinnedTilePlaceholderGenerator.generate(context, "https://mozilla.org", CORNER_RADIUS_PX),
+                PinnedTilePlaceholderGenerator.generate(context, "https://mozilla.org", CORNER_RADIUS_PX * 2))
+    }
+}
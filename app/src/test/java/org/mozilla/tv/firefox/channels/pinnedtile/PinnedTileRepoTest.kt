@@ -10,24 +10,36 @@ import androidx.test.core.app.ApplicationProvider
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNotNull
 import org.junit.Before
+import org.junit.BeforeClass
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.spy
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
+import org.mozilla.tv.firefox.channels.ListChange
+import org.mozilla.tv.firefox.channels.applyChanges
 import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import org.mozilla.tv.firefox.helpers.RxTestHelper
 import java.util.UUID
 
 private const val BUNDLED_TILE_COUNT = 10
 
 /**
  * Unit tests for the [PinnedTileRepo].
- * Bundled tile list fetch comes from /assets/bundled/bundled_tiles.json
+ * Bundled tile list comes from /src/main/bundled/bundled_tiles.json, compiled at build time
  */
 @RunWith(FirefoxRobolectricTestRunner::class)
 class PinnedTileRepoTest {
 
+    companion object {
+        @BeforeClass
+        @JvmStatic
+        fun beforeClass() {
+            RxTestHelper.forceRxSynchronousInBeforeClass() // Tiles are persisted on an Rx scheduler.
+        }
+    }
+
     private lateinit var pinnedTileRepo: PinnedTileRepo
     private val featuredBundled = linkedMapOf(
             "https://ftv.cdn.mozilla.net/ytht" to BundledPinnedTile(url = "https://ftv.cdn.mozilla.net/ytht", title = "YouTube", imagePath = "tile_youtube.png", id = "youtube"),
@@ -183,4 +195,65 @@ class PinnedTileRepoTest {
         val actualAddedIndex = actualTiles.keys.indexOf(addedTileURL)
         assertEquals(expectedAddedIndex, actualAddedIndex)
     }
+
+    @Test
+    fun `GIVEN the default bundled tiles WHEN several tiles are added THEN they are added in order after the featured tiles`() {
+        val addedTileURLs = (0 until 3).map { "https://example$it.com" }
+        addedTileURLs.forEach { pinnedTileRepo.addPinnedTile(it, screenshot = null) }
+
+        val actualURLs = pinnedTileRepo.pinnedTiles.test().values().last().keys.toList()
+        assertEquals(addedTileURLs, actualURLs.subList(featuredBundled.size, featuredBundled.size + addedTileURLs.size))
+        assertEquals(BUNDLED_TILE_COUNT + addedTileURLs.size, actualURLs.size)
+    }
+
+    @Test
+    fun `WHEN a tile is already pinned THEN adding it again does nothing`() {
+        pinnedTileRepo.addPinnedTile("https://example.com", null)
+        pinnedTileRepo.addPinnedTile("https://example.com", null)
+        pinnedTileRepo.addPinnedTile(featuredBundled.keys.first(), null)
+
+        assertEquals(1, pinnedTileRepo.customTilesSize)
+        assertEquals(BUNDLED_TILE_COUNT + 1, pinnedTileRepo.pinnedTiles.test().values().last().size)
+    }
+
+    @Test
+    fun `WHEN custom tiles are added and removed THEN a new repo loads the same tiles`() {
+        pinnedTileRepo.addPinnedTile("https://example.com", null)
+        pinnedTileRepo.addPinnedTile("https://example.org", null)
+        pinnedTileRepo.addPinnedTile("https://example.net", null)
+        pinnedTileRepo.removePinnedTile("https://example.org")
+        val expected = pinnedTileRepo.pinnedTiles.test().values().last().keys.toList()
+
+        val reloadedRepo = PinnedTileRepo(ApplicationProvider.getApplicationContext())
+        assertEquals(expected, reloadedRepo.pinnedTiles.test().values().last().keys.toList())
+        assertEquals(2, reloadedRepo.customTilesSize)
+    }
+
+    @Test
+    fun `WHEN tiles are added and removed THEN the changes emitted rebuild the pinned tiles`() {
+        val changesObserver = pinnedTileRepo.pinnedTileChanges.test()
+        pinnedTileRepo.addPinnedTile("https://example.com", null)
+        pinnedTileRepo.addPinnedTile("https://example.org", null)
+        pinnedTileRepo.removePinnedTile("https://example.com")
+        pinnedTileRepo.removePinnedTile(unfeaturedBundled.keys.first())
+
+        val changes = changesObserver.values()
+        val pinnedTiles = pinnedTileRepo.pinnedTiles.test().values().last()
+        assertEquals(BUNDLED_TILE_COUNT, changes.first().size)
+        assertEquals(listOf(ListChange.Insert(featuredBundled.size + 1, pinnedTiles["https://example.org"]!!)), changes[2])
+        assertEquals(listOf(ListChange.Remove(featuredBundled.size)), changes[3])
+
+        val rebuiltTiles = mutableListOf<PinnedTile>()
+        changes.forEach { rebuiltTiles.applyChanges(it) }
+        assertEquals(pinnedTiles.values.toList(), rebuiltTiles)
+    }
+
+    @Test
+    fun `WHEN subscribing to changes after tiles were added THEN the first emission inserts every tile`() {
+        pinnedTileRepo.addPinnedTile("https://example.com", null)
+
+        val changes = pinnedTileRepo.pinnedTileChanges.test().values()
+        val expected = pinnedTileRepo.pinnedTiles.test().values().last().values.mapIndexed { i, tile -> ListChange.Insert(i, tile) }
+        assertEquals(listOf(expected), changes)
+    }
 }
@@ -8,14 +8,21 @@ import android.app.Application
 import android.graphics.Bitmap
 import android.graphics.Color
 import androidx.test.core.app.ApplicationProvider
+import kotlinx.coroutines.asCoroutineDispatcher
 import kotlinx.coroutines.runBlocking
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.After
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import java.io.File
+import java.util.ArrayDeque
 import java.util.UUID
+import java.util.concurrent.Executor
 
 /**
  * Unit tests for the screenshot store. Though HomeTileScreenshotStoreIntegrationTest exists,
@@ -28,6 +35,7 @@ import java.util.UUID
 class PinnedTileScreenshotStoreUnitTest {
     private lateinit var appContext: Application
     private lateinit var uuid: UUID
+    private val defaultEncoderDispatcher = PinnedTileScreenshotStore.encoderDispatcher
 
     @Before
     fun setUp() {
@@ -36,6 +44,11 @@ class PinnedTileScreenshotStoreUnitTest {
         uuid = UUID.randomUUID()
     }
 
+    @After
+    fun tearDown() {
+        PinnedTileScreenshotStore.encoderDispatcher = defaultEncoderDispatcher
+    }
+
     /** Assumes [PinnedTileScreenshotStore.getFileForUUID] works correctly. */
     @Test
     fun testSaveAsyncDoesNotOverwrite() = runBlocking {
@@ -44,7 +57,7 @@ class PinnedTileScreenshotStoreUnitTest {
         PinnedTileScreenshotStore.saveAsync(context, UUID.randomUUID(), getNonBlankBitmap()).join()
 
         assertEquals(2,
-                PinnedTileScreenshotStore.getFileForUUID(context, uuid).parentFile.list().size)
+                PinnedTileScreenshotStore.getFileForUUID(context, uuid).parentFile.listScreenshots().size)
     }
 
     @Test
@@ -88,12 +101,162 @@ class PinnedTileScreenshotStoreUnitTest {
     fun testRemoveAsyncRemovesFileWrittenBySaveAsync() = runBlocking {
         val parentFile = PinnedTileScreenshotStore.getFileForUUID(appContext, uuid).parentFile
         PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
-        assertEquals(1, parentFile.list().size)
+        assertEquals(1, parentFile.listScreenshots().size)
 
         PinnedTileScreenshotStore.removeAsync(appContext, uuid).join()
 
         assertEquals(0, parentFile.list().size)
     }
+
+    @Test
+    fun testSaveAsyncWritesThumbnail() = runBlocking {
+        PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
+
+        assertTrue(PinnedTileScreenshotStore.getThumbnailFileForUUID(appContext, uuid).exists())
+        assertTrue(PinnedTileScreenshotStore.getFileForUUID(appContext, uuid).exists())
+    }
+
+    @Test
+    fun testRemoveAsyncRemovesThumbnail() = runBlocking {
+        PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
+
+        PinnedTileScreenshotStore.removeAsync(appContext, uuid).join()
+
+        assertFalse(PinnedTileScreenshotStore.getThumbnailFileForUUID(appContext, uuid).exists())
+    }
+
+    @Test
+    fun testScrubAsyncCreatesThumbnailForOldScreenshot() = runBlocking {
+        PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
+        val thumbnailFile = PinnedTileScreenshotStore.getThumbnailFileForUUID(appContext, uuid)
+        thumbnailFile.delete()
+
+        PinnedTileScreenshotStore.scrubAsync(appContext, listOf(uuid, UUID.randomUUID())).join()
+
+        assertTrue(thumbnailFile.exists())
+    }
+
+    @Test
+    fun testSaveAsyncWritesChecksums() = runBlocking {
+        PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
+
+        assertEquals(true, matchesChecksum(PinnedTileScreenshotStore.getFileForUUID(appContext, uuid)))
+        assertEquals(true, matchesChecksum(PinnedTileScreenshotStore.getThumbnailFileForUUID(appContext, uuid)))
+    }
+
+    @Test
+    fun testScrubAsyncDeletesTruncatedScreenshot() = runBlocking {
+        PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
+        val file = PinnedTileScreenshotStore.getFileForUUID(appContext, uuid)
+        file.writeBytes(file.readBytes().copyOf(file.length().toInt() / 2))
+
+        PinnedTileScreenshotStore.scrubAsync(appContext, listOf(uuid)).join()
+
+        assertFalse(file.exists())
+        assertFalse(getChecksumFile(file).exists())
+        assertTrue(PinnedTileScreenshotStore.getThumbnailFileForUUID(appContext, uuid).exists())
+    }
+
+    @Test
+    fun testScrubAsyncDeletesTempFilesAndScreenshotsOfUnpinnedTiles() = runBlocking {
+        val unpinnedUUID = UUID.randomUUID()
+        PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap()).join()
+        PinnedTileScreenshotStore.saveAsync(appContext, unpinnedUUID, getNonBlankBitmap()).join()
+        val tempFile = getTempFile(PinnedTileScreenshotStore.getFileForUUID(appContext, uuid))
+        tempFile.writeText("interrupted")
+        val unpinnedFiles = listOf(PinnedTileScreenshotStore.getFileForUUID(appContext, unpinnedUUID),
+                PinnedTileScreenshotStore.getThumbnailFileForUUID(appContext, unpinnedUUID))
+        unpinnedFiles.forEach { it.setLastModified(System.currentTimeMillis() - 60_000) }
+
+        PinnedTileScreenshotStore.scrubAsync(appContext, listOf(uuid)).join()
+
+        assertFalse(tempFile.exists())
+        unpinnedFiles.forEach { assertFalse(it.exists()) }
+        assertTrue(PinnedTileScreenshotStore.getFileForUUID(appContext, uuid).exists())
+    }
+
+    @Test
+    fun testSaveAsyncCoalescesSavesForTheSameUUID() = runBlocking {
+        val encoderTasks = pauseEncoder()
+        val before = PinnedTileScreenshotStore.encoderMetrics
+
+        val firstSave = PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap())
+        val secondSave = PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap())
+        assertEquals(1, PinnedTileScreenshotStore.encoderMetrics.queueDepth)
+
+        encoderTasks.runAll()
+        firstSave.join()
+        secondSave.join()
+
+        val after = PinnedTileScreenshotStore.encoderMetrics
+        assertEquals(1, after.coalescedCount - before.coalescedCount)
+        assertEquals(1, after.encodedCount - before.encodedCount)
+        assertTrue(after.bytesWritten > before.bytesWritten)
+        assertEquals(0, after.queueDepth)
+    }
+
+    @Test
+    fun testSaveAsyncDropsOldestSaveWhenQueueIsFull() = runBlocking {
+        val encoderTasks = pauseEncoder()
+        val before = PinnedTileScreenshotStore.encoderMetrics
+
+        val uuids = (0..MAX_PENDING_SAVES).map { UUID.randomUUID() }
+        val saves = uuids.map { PinnedTileScreenshotStore.saveAsync(appContext, it, getNonBlankBitmap()) }
+        assertTrue(saves.first().isCompleted)
+        assertEquals(MAX_PENDING_SAVES, PinnedTileScreenshotStore.encoderMetrics.queueDepth)
+
+        encoderTasks.runAll()
+        saves.forEach { it.join() }
+
+        assertEquals(1, PinnedTileScreenshotStore.encoderMetrics.droppedCount - before.droppedCount)
+        assertFalse(PinnedTileScreenshotStore.getFileForUUID(appContext, uuids.first()).exists())
+        uuids.drop(1).forEach {
+            assertTrue(PinnedTileScreenshotStore.getFileForUUID(appContext, it).exists())
+        }
+    }
+
+    @Test
+    fun testRemoveAsyncCancelsPendingSave() = runBlocking {
+        val encoderTasks = pauseEncoder()
+        val save = PinnedTileScreenshotStore.saveAsync(appContext, uuid, getNonBlankBitmap())
+
+        PinnedTileScreenshotStore.removeAsync(appContext, uuid).join()
+        assertTrue(save.isCompleted)
+        encoderTasks.runAll()
+
+        assertFalse(PinnedTileScreenshotStore.getFileForUUID(appContext, uuid).exists())
+    }
+
+    @Test
+    fun testBlankCheckFindsContentAtEdges() {
+        val bitmap = Bitmap.createBitmap(1920, 1080, Bitmap.Config.ARGB_8888).apply { eraseColor(Color.BLACK) }
+        assertFalse(isScreenshotAcceptableAsHomeTile(bitmap))
+
+        bitmap.setPixel(1919, 1079, Color.WHITE)
+        assertTrue(isScreenshotAcceptableAsHomeTile(bitmap))
+    }
+
+    @Test
+    fun testBlankCheckFindsContentBlocks() {
+        val bitmap = Bitmap.createBitmap(1920, 1080, Bitmap.Config.ARGB_8888).apply { eraseColor(Color.BLACK) }
+        for (x in 900 until 1000) {
+            for (y in 500 until 600) bitmap.setPixel(x, y, Color.WHITE)
+        }
+        assertTrue(isScreenshotAcceptableAsHomeTile(bitmap))
+    }
+
+    /** Queues encoder tasks instead of running them, so tests can inspect the queue: see [runAll]. */
+    private fun pauseEncoder(): ArrayDeque<Runnable> {
+        val tasks = ArrayDeque<Runnable>()
+        PinnedTileScreenshotStore.encoderDispatcher = Executor { tasks.add(it) }.asCoroutineDispatcher()
+        return tasks
+    }
+
+    private fun File.listScreenshots() = listFiles().filterNot { isChecksumFile(it) }
+
+    private fun ArrayDeque<Runnable>.runAll() {
+        while (isNotEmpty()) poll().run()
+    }
 }
 
 /** Gets a bitmap that isn't a single color: we don't save blank bitmaps, so this is important. */
@@ -31,7 +31,6 @@ import org.mozilla.tv.firefox.navigationoverlay.ToolbarViewModel
 import org.mozilla.tv.firefox.session.SessionRepo
 import org.mozilla.tv.firefox.utils.FormattedDomainWrapper
 import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
-import java.io.File
 
 const val DEFAULT_PINNED_TILE_COUNT = 10
 
@@ -58,7 +57,6 @@ class PinnedTileTest {
     @MockK private lateinit var pinnedTileImageUtilWrapper: PinnedTileImageUtilWrapper
     @MockK private lateinit var formattedDomainWrapper: FormattedDomainWrapper
     @MockK private lateinit var drawable: Drawable
-    @MockK private lateinit var file: File
     private lateinit var overlayVm: NavigationOverlayViewModel
     private lateinit var pinnedTileRepo: PinnedTileRepo
     private lateinit var testObserver: TestObserver<ChannelDetails>
@@ -69,7 +67,6 @@ class PinnedTileTest {
     fun setUp() {
         MockKAnnotations.init(this)
         every { pinnedTileImageUtilWrapper.generatePinnedTilePlaceholder(any()) } answers { drawable }
-        every { pinnedTileImageUtilWrapper.getFileForUUID(any()) } answers { file }
         every { formattedDomainWrapper.format(any(), any(), any()) } answers { "" }
         every { channelRepo.getNewsTiles() } answers { Observable.just(listOf()) }
         every { channelRepo.getMusicTiles() } answers { Observable.just(listOf()) }
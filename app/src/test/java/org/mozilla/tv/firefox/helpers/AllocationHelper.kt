@@ -0,0 +1,32 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.helpers
+
+import org.junit.Assume.assumeTrue
+import java.lang.management.ManagementFactory
+import com.sun.management.ThreadMXBean as AllocationCountingThreadMXBean
+
+/**
+ * Helper functions for testing that code doesn't allocate, e.g. in the 60 FPS cursor update loop.
+ */
+object AllocationHelper {
+
+    /**
+     * Returns the bytes allocated on the current thread while running [block]. Run the code under
+     * test once beforehand, so loading classes and lazily initialized state isn't counted.
+     *
+     * Skips the test if the JVM can't count allocations.
+     */
+    fun measureAllocatedBytes(block: () -> Unit): Long {
+        val threadMXBean = ManagementFactory.getThreadMXBean() as? AllocationCountingThreadMXBean
+        assumeTrue(threadMXBean?.isThreadAllocatedMemorySupported == true)
+        threadMXBean!!.isThreadAllocatedMemoryEnabled = true
+        val threadId = Thread.currentThread().id
+
+        val allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId)
+        block()
+        return threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore
+    }
+}
@@ -0,0 +1,44 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.helpers
+
+import android.graphics.PointF
+import io.mockk.every
+import io.mockk.mockk
+import io.reactivex.Observable
+import org.mozilla.tv.firefox.ScreenControllerStateMachine.ActiveScreen
+import org.mozilla.tv.firefox.framework.FrameworkRepo
+import org.mozilla.tv.firefox.session.SessionRepo
+import org.mozilla.tv.firefox.webrender.cursor.CursorModel
+
+/**
+ * Helper functions for creating [CursorModel]s.
+ */
+object CursorModelHelper {
+
+    /**
+     * Creates a [CursorModel] that is enabled, as on a web page that the cursor can scroll in
+     * every direction.
+     */
+    fun createEnabledCursorModel(screenBounds: PointF): CursorModel {
+        val frameworkRepo = mockk<FrameworkRepo> {
+            every { isVoiceViewEnabled } returns Observable.just(false)
+        }
+        val sessionRepo = mockk<SessionRepo> {
+            every { state } returns Observable.just(SessionRepo.State(
+                backEnabled = true,
+                forwardEnabled = true,
+                desktopModeActive = false,
+                turboModeActive = false,
+                currentUrl = "https://www.mozilla.com",
+                loading = false
+            ))
+        }
+        return CursorModel(Observable.just(ActiveScreen.WEB_RENDER), frameworkRepo, sessionRepo).apply {
+            this.screenBounds = screenBounds
+            webViewCouldScrollInDirectionProvider = { true }
+        }
+    }
+}
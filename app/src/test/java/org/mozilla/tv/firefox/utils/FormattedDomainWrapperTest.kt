@@ -0,0 +1,54 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils
+
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import java.net.URI
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class FormattedDomainWrapperTest {
+
+    private lateinit var formattedDomainWrapper: FormattedDomainWrapper
+
+    @Before
+    fun setUp() {
+        formattedDomainWrapper = FormattedDomainWrapper(ApplicationProvider.getApplicationContext())
+    }
+
+    @Test
+    fun `WHEN the same host is formatted twice THEN the second call is a cache hit with the same result`() {
+        val first = formattedDomainWrapper.format(URI("https://m.blog.foo.com/bar"), false, 1)
+        val second = formattedDomainWrapper.format(URI("https://m.blog.foo.com/other?q=1"), false, 1)
+
+        assertEquals("blog.foo", first)
+        assertEquals(first, second)
+        assertEquals(1, formattedDomainWrapper.cacheMissCount)
+        assertEquals(1, formattedDomainWrapper.cacheHitCount)
+    }
+
+    @Test
+    fun `WHEN the same host is formatted with different arguments THEN each is computed separately`() {
+        assertEquals("blog.foo", formattedDomainWrapper.format(URI("https://m.blog.foo.com"), false, 1))
+        assertEquals("blog.foo.com", formattedDomainWrapper.format(URI("https://m.blog.foo.com"), true, 1))
+        assertEquals("foo", formattedDomainWrapper.format(URI("https://m.blog.foo.com"), false, 0))
+
+        assertEquals(3, formattedDomainWrapper.cacheMissCount)
+        assertEquals(0, formattedDomainWrapper.cacheHitCount)
+    }
+
+    @Test
+    fun `WHEN the cache is invalidated THEN the next call is a cache miss`() {
+        formattedDomainWrapper.format(URI("https://google.com"), true, 0)
+        formattedDomainWrapper.invalidate()
+        formattedDomainWrapper.format(URI("https://google.com"), true, 0)
+
+        assertEquals(2, formattedDomainWrapper.cacheMissCount)
+    }
+}
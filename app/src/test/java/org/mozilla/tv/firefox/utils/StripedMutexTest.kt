@@ -0,0 +1,100 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils
+
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.yield
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.FileOutputStream
+import java.util.UUID
+import java.util.concurrent.atomic.AtomicInteger
+
+private const val KEY_COUNT = 64
+private const val STRIPE_COUNT = 4 // Fewer than the keys so keys share locks.
+private const val WRITES_PER_KEY = 20
+private const val READS_PER_KEY = 40
+private const val CHUNK_SIZE = 512
+private const val CHUNK_COUNT = 8
+
+class StripedMutexTest {
+
+    @get:Rule val folder = TemporaryFolder()
+
+    @Test
+    fun `WHEN getting the mutex for the same key THEN the same mutex is returned`() {
+        val stripedMutex = StripedMutex<UUID>(STRIPE_COUNT)
+        val uuid = UUID.randomUUID()
+        assertSame(stripedMutex[uuid], stripedMutex[UUID(uuid.mostSignificantBits, uuid.leastSignificantBits)])
+    }
+
+    @Test
+    fun `WHEN getting mutexes for many keys THEN no more mutexes than stripes are returned`() {
+        val stripedMutex = StripedMutex<UUID>(STRIPE_COUNT)
+        val mutexes = List(KEY_COUNT) { stripedMutex[UUID.randomUUID()] }.toSet()
+        assertTrue(mutexes.size <= STRIPE_COUNT)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `WHEN the stripe count is not a power of two THEN construction fails`() {
+        StripedMutex<UUID>(3)
+    }
+
+    @Test
+    fun `WHEN files are written and read concurrently under their key's lock THEN no read is torn`() {
+        val stripedMutex = StripedMutex<UUID>(STRIPE_COUNT)
+        val readCount = AtomicInteger()
+        val tornReadCount = AtomicInteger()
+
+        runBlocking {
+            repeat(KEY_COUNT) {
+                val uuid = UUID.randomUUID()
+                val file = File(folder.root, uuid.toString())
+
+                launch(Dispatchers.Default) {
+                    repeat(WRITES_PER_KEY) { i ->
+                        stripedMutex[uuid].withLock { writeInChunks(file, i.toByte()) }
+                    }
+                }
+
+                launch(Dispatchers.Default) {
+                    repeat(READS_PER_KEY) {
+                        val bytes = stripedMutex[uuid].withLock { if (file.exists()) file.readBytes() else null }
+                        if (bytes != null) {
+                            readCount.incrementAndGet()
+                            if (bytes.size != CHUNK_SIZE * CHUNK_COUNT || bytes.any { it != bytes[0] }) {
+                                tornReadCount.incrementAndGet()
+                            }
+                        }
+                        yield()
+                    }
+                }
+            }
+        }
+
+        assertTrue(readCount.get() > 0)
+        assertEquals(0, tornReadCount.get())
+    }
+
+    /** Writes the file one chunk at a time, suspending between chunks so others can interleave. */
+    private suspend fun writeInChunks(file: File, value: Byte) {
+        val chunk = ByteArray(CHUNK_SIZE) { value }
+        FileOutputStream(file).use { output ->
+            repeat(CHUNK_COUNT) {
+                output.write(chunk)
+                output.flush()
+                yield()
+            }
+        }
+    }
+}
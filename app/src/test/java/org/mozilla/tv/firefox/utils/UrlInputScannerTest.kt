@@ -0,0 +1,134 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils
+
+import android.net.Uri
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import org.mozilla.tv.firefox.utils.UrlInputScanner.Kind
+import java.util.Random
+
+private const val FUZZ_SEED = 1729L
+private const val FUZZ_INPUT_COUNT = 100_000
+
+/** Characters that affect classification or normalization, weighted towards the interesting ones. */
+private const val FUZZ_ALPHABET = "  \t\n\u0000\u001f..::://[]@?#%-_aAhHtTpPsSxX0123456789ä。😀"
+private val FUZZ_FRAGMENTS = listOf("http://", "https://", "HTTPS://", "file:///", "www.", ".com", ":8080",
+        "192.168.0.1", "256.1.1.1", "[::1]", "[2001:db8::ff00:42:8329]", "[::ffff:10.0.0.1]", "localhost", " ")
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class UrlInputScannerTest {
+
+    @Test
+    fun `WHEN classifying fuzzed input THEN it matches the previous isUrl implementation`() {
+        fuzzCorpus().forEach {
+            assertEquals("isUrl(\"$it\")", legacyIsUrl(it), UrlInputScanner.classify(it) != Kind.SEARCH_QUERY)
+        }
+    }
+
+    @Test
+    fun `WHEN normalizing fuzzed input THEN it matches the previous normalize implementation`() {
+        val scratch = StringBuilder()
+        fuzzCorpus().forEach {
+            val expected = legacyNormalize(it)
+            assertEquals("normalize(\"$it\")", expected, UrlInputScanner.normalize(it, scratch))
+            assertEquals("normalizeTo(\"$it\")", expected, UrlInputScanner.normalizeTo(it, StringBuilder()).toString())
+        }
+    }
+
+    @Test
+    fun `WHEN normalizing into a builder THEN the result is appended`() {
+        val builder = StringBuilder("> ")
+        UrlInputScanner.normalizeTo(" mozilla.org ", builder)
+        assertEquals("> http://mozilla.org", builder.toString())
+    }
+
+    @Test
+    fun `WHEN input is already normalized THEN it is returned without copying`() {
+        val input = "https://www.mozilla.org/"
+        assertSame(input, UrlInputScanner.normalize(input, StringBuilder()))
+    }
+
+    @Test
+    fun `WHEN input is an IP literal THEN it is classified as one`() {
+        listOf(
+                "192.168.0.1",
+                " 10.0.0.255 ",
+                "192.168.0.1:8080",
+                "192.168.0.1/index.html",
+                "http://192.168.0.1",
+                "HTTPS://127.0.0.1:8443/",
+                "[::1]",
+                "[2001:db8::ff00:42:8329]:443/path",
+                "http://[::ffff:10.0.0.1]/"
+        ).forEach {
+            assertEquals(it, Kind.IP_LITERAL, UrlInputScanner.classify(it))
+        }
+    }
+
+    @Test
+    fun `WHEN input is not an IP literal THEN it is classified as a URL or search query`() {
+        listOf(
+                "mozilla.org",
+                "256.1.1.1",
+                "1.2.3",
+                "1.2.3.4.5",
+                "1.2.3.",
+                "1..2.3",
+                "1234.1.1.1",
+                "1.2.3.4a",
+                "[]:80",
+                "[::1",
+                "[::g]",
+                "[::1]x",
+                "file:///mnt/sdcard/"
+        ).forEach {
+            assertEquals(it, Kind.URL, UrlInputScanner.classify(it))
+        }
+
+        listOf("", "   ", "mozilla", "192.168.0.1 is my router", "1 2.3.4").forEach {
+            assertEquals(it, Kind.SEARCH_QUERY, UrlInputScanner.classify(it))
+        }
+    }
+
+    private fun fuzzCorpus(): Sequence<String> {
+        val random = Random(FUZZ_SEED)
+        return generateSequence {
+            val input = StringBuilder()
+            repeat(random.nextInt(24)) {
+                if (random.nextInt(4) == 0) {
+                    input.append(FUZZ_FRAGMENTS[random.nextInt(FUZZ_FRAGMENTS.size)])
+                } else {
+                    input.append(FUZZ_ALPHABET[random.nextInt(FUZZ_ALPHABET.length)])
+                }
+            }
+            input.toString()
+        }.take(FUZZ_INPUT_COUNT)
+    }
+
+    /** The implementation of [UrlUtils.normalize] before [UrlInputScanner]. */
+    private fun legacyNormalize(input: String): String {
+        val trimmedInput = input.trim { it <= ' ' }
+        var uri = Uri.parse(trimmedInput)
+
+        uri.scheme.let { scheme ->
+            if (scheme == null || scheme.isEmpty()) {
+                uri = Uri.parse("http://$trimmedInput")
+            }
+        }
+        return uri.toString()
+    }
+
+    /** The implementation of [UrlUtils.isUrl] before [UrlInputScanner]. */
+    private fun legacyIsUrl(url: String): Boolean {
+        val trimmedUrl = url.trim { it <= ' ' }
+        return if (trimmedUrl.contains(" ")) {
+            false
+        } else trimmedUrl.contains(".") || trimmedUrl.contains(":")
+    }
+}
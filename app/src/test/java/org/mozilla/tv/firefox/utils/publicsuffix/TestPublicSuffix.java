@@ -144,6 +144,41 @@ public class TestPublicSuffix {
         }
     }
 
+    @Test
+    public void testGetPublicSuffixWildcardAndExceptionRules() {
+        final Map<String, String> inputToExpected = new HashMap<>();
+
+        // Wildcard: *.kawasaki.jp
+        inputToExpected.put("a.b.kawasaki.jp", "b.kawasaki.jp");
+        inputToExpected.put("a.b.c.kawasaki.jp", "c.kawasaki.jp");
+
+        // Exception: !city.kawasaki.jp
+        inputToExpected.put("city.kawasaki.jp", "kawasaki.jp");
+        inputToExpected.put("a.city.kawasaki.jp", "kawasaki.jp");
+
+        for (final Map.Entry<String, String> entry : inputToExpected.entrySet()) {
+            final String input = entry.getKey();
+            final String expected = entry.getValue();
+            Assert.assertEquals("for input:" + input + "||", expected,
+                    PublicSuffix.getPublicSuffix(RuntimeEnvironment.application, input, 0));
+        }
+
+        // The longest matching rule wins, regardless of case.
+        Assert.assertEquals("foo",
+                PublicSuffix.stripPublicSuffix(RuntimeEnvironment.application, "foo.PVT.K12.MA.US"));
+    }
+
+    @Test
+    public void testNonBlockingQueriesOnceReady() {
+        PublicSuffix.whenReady(RuntimeEnvironment.application).blockingAwait();
+        Assert.assertTrue(PublicSuffix.isReady());
+
+        Assert.assertEquals("bbc.co.uk", PublicSuffix.tryGetPublicSuffix("www.bbc.co.uk", 1));
+        Assert.assertEquals("www.mozilla", PublicSuffix.tryStripPublicSuffix("www.mozilla.org"));
+        Assert.assertEquals("bbc.co.uk",
+                PublicSuffix.getPublicSuffixAsync(RuntimeEnvironment.application, "www.bbc.co.uk", 1).blockingGet());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testGetPublicSuffixWithNegativeAdditionalPartCountThrows() {
         PublicSuffix.getPublicSuffix(RuntimeEnvironment.application, "whatever-doesnt-matter", -1);
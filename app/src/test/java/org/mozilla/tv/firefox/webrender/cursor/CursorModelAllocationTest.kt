@@ -0,0 +1,51 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.webrender.cursor
+
+import android.graphics.PointF
+import android.view.KeyEvent
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.AllocationHelper
+import org.mozilla.tv.firefox.helpers.CursorModelHelper
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+
+private const val WARM_UP_REPEAT_COUNT = 1000
+private const val REPEAT_COUNT = 1000
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class CursorModelAllocationTest {
+
+    private lateinit var cursorModel: CursorModel
+
+    @Before
+    fun setup() {
+        cursorModel = CursorModelHelper.createEnabledCursorModel(PointF(1920f, 1080f))
+        cursorModel.mutatePosition(PointF(), 0) // Sets the initial position.
+    }
+
+    @Test
+    fun `WHEN a direction key repeats THEN handling it does not allocate`() {
+        // The events are allocated by the framework, not by the cursor: create them up front.
+        val repeats = Array(WARM_UP_REPEAT_COUNT + REPEAT_COUNT + 1) { repeatCount ->
+            KeyEvent(0, repeatCount.toLong(), KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT, repeatCount)
+        }
+        // Loads classes and lazily initialized state.
+        for (i in 0..WARM_UP_REPEAT_COUNT) {
+            assertTrue(cursorModel.handleKeyEvent(repeats[i]).wasKeyEventConsumed)
+        }
+
+        val allocatedBytes = AllocationHelper.measureAllocatedBytes {
+            for (i in WARM_UP_REPEAT_COUNT + 1 until repeats.size) {
+                cursorModel.handleKeyEvent(repeats[i])
+            }
+        }
+
+        // Less than a byte per repeat: any object allocated per repeat would take at least 16.
+        assertTrue("$allocatedBytes bytes allocated for $REPEAT_COUNT key repeats", allocatedBytes < REPEAT_COUNT)
+    }
+}
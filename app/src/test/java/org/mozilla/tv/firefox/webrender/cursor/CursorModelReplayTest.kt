@@ -0,0 +1,232 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.webrender.cursor
+
+import android.graphics.PointF
+import android.view.KeyEvent
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.CursorModelHelper
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import java.util.concurrent.TimeUnit
+
+private const val SCREEN_WIDTH = 1920f
+private const val SCREEN_HEIGHT = 1080f
+private const val MAX_PX_PER_60_HZ_FRAME = 21f
+private const val TOLERANCE_PX = 0.01f
+
+// Holding right moves the cursor from the middle of the screen to its edge in about a second, then
+// scrolls the page until the key is released.
+private const val SCROLL_RELEASE_MS = 1500L
+
+/**
+ * Replays recorded key timelines against [CursorModel], frame by frame, as [CursorView] would on
+ * displays with different refresh rates.
+ */
+@RunWith(FirefoxRobolectricTestRunner::class)
+class CursorModelReplayTest {
+
+    /** A key event at [timeMs], from the start of the timeline. */
+    private data class TimedKey(val timeMs: Long, val action: Int, val keyCode: Int)
+
+    private val scrollRightTimeline = listOf(
+        TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT),
+        TimedKey(SCROLL_RELEASE_MS, KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_RIGHT)
+    )
+
+    @Test
+    fun `WHEN a key is held THEN the cursor is in the same place at 30, 50 and 60 Hz`() {
+        val timeline = listOf(
+            TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT),
+            TimedKey(1000, KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_RIGHT)
+        )
+
+        val at60Hz = replay(timeline, frameRateHz = 60, durationMs = 900)
+        val at50Hz = replay(timeline, frameRateHz = 50, durationMs = 900)
+        val at30Hz = replay(timeline, frameRateHz = 30, durationMs = 900)
+
+        // Every 100ms is a frame at each of these rates.
+        for (timeMs in 100L..900L step 100) {
+            assertEquals(at60Hz.getValue(timeMs).x, at50Hz.getValue(timeMs).x, TOLERANCE_PX)
+            assertEquals(at60Hz.getValue(timeMs).x, at30Hz.getValue(timeMs).x, TOLERANCE_PX)
+        }
+        assertTrue(at60Hz.getValue(900).x > at60Hz.getValue(100).x)
+    }
+
+    @Test
+    fun `WHEN frames are dropped THEN the cursor is where it would have been without dropping them`() {
+        val timeline = listOf(TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_DOWN))
+
+        val allFrames = replay(timeline, frameRateHz = 60, durationMs = 500)
+        val droppedFrames = replay(timeline, frameRateHz = 60, durationMs = 500, droppedFrames = 10..13)
+
+        assertEquals(allFrames.getValue(500).y, droppedFrames.getValue(500).y, TOLERANCE_PX)
+    }
+
+    @Test
+    fun `WHEN a key is held past the acceleration time THEN the cursor moves at its max velocity`() {
+        val timeline = listOf(TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT))
+
+        val positions = replay(timeline, frameRateHz = 60, durationMs = 800)
+
+        // 700ms and 800ms are six 60 Hz frames apart.
+        assertEquals(6 * MAX_PX_PER_60_HZ_FRAME, positions.getValue(800).x - positions.getValue(700).x, TOLERANCE_PX)
+    }
+
+    @Test
+    fun `WHEN all keys are released THEN the cursor stops moving`() {
+        val timeline = listOf(
+            TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_LEFT),
+            TimedKey(300, KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_LEFT)
+        )
+
+        val positions = replay(timeline, frameRateHz = 60, durationMs = 600)
+
+        assertTrue(positions.getValue(300).x < SCREEN_WIDTH / 2)
+        assertEquals(positions.getValue(300).x, positions.getValue(600).x, 0f)
+    }
+
+    @Test
+    fun `WHEN the cursor scrolls the page THEN every scroll request is in whole px`() {
+        val scrolls = mutableMapOf<Long, PointF>()
+
+        replay(scrollRightTimeline, frameRateHz = 50, durationMs = 2000, scrollsByFrameMs = scrolls)
+
+        assertTrue(scrolls.isNotEmpty())
+        scrolls.values.forEach {
+            assertEquals(Math.round(it.x).toFloat(), it.x, 0f)
+            assertEquals(0f, it.y, 0f)
+        }
+    }
+
+    @Test
+    fun `WHEN a key is held at the edge of the screen THEN the page is not scrolled on every frame`() {
+        val scrolls = mutableMapOf<Long, PointF>()
+        var scrollRequestCount = 0
+
+        replay(scrollRightTimeline, frameRateHz = 60, durationMs = SCROLL_RELEASE_MS - 1, scrollsByFrameMs = scrolls) {
+            scrollRequests.subscribe { scrollRequestCount++ }
+        }
+
+        // At most one request every 50ms, the first as soon as the cursor reaches the edge.
+        val scrollingMs = SCROLL_RELEASE_MS - scrolls.keys.min()!!
+        assertTrue("$scrollRequestCount requests in $scrollingMs ms", scrollRequestCount in 2..(scrollingMs / 50 + 1))
+        assertTrue(scrolls.values.sumByDouble { it.x.toDouble() } > 0)
+    }
+
+    @Test
+    fun `WHEN the keys are released while scrolling THEN the page keeps scrolling and slows down until it stops`() {
+        val scrolls = mutableMapOf<Long, PointF>()
+
+        val positions = replay(scrollRightTimeline, frameRateHz = 60, durationMs = 3000, scrollsByFrameMs = scrolls)
+
+        // Requests are rounded to whole px, so compare their sums over several frames.
+        fun scrolledBetween(startMs: Long, endMs: Long) =
+            scrolls.filterKeys { it in (startMs + 1)..endMs }.values.sumByDouble { it.x.toDouble() }
+        val firstScrolled = scrolledBetween(SCROLL_RELEASE_MS, SCROLL_RELEASE_MS + 100)
+        val nextScrolled = scrolledBetween(SCROLL_RELEASE_MS + 100, SCROLL_RELEASE_MS + 200)
+        assertTrue("$firstScrolled then $nextScrolled px", nextScrolled > 0 && nextScrolled < firstScrolled)
+        assertFalse(scrolls.keys.any { it > 2500 })
+        assertEquals(positions.getValue(SCROLL_RELEASE_MS).x, positions.getValue(3000).x, 0f)
+    }
+
+    @Test
+    fun `WHEN the keys are released while scrolling and the engine can fling THEN it flings once instead`() {
+        val scrolls = mutableMapOf<Long, PointF>()
+        val flings = mutableListOf<Pair<Int, Int>>()
+
+        replay(scrollRightTimeline, frameRateHz = 60, durationMs = 3000, scrollsByFrameMs = scrolls) {
+            webViewFlingProvider = { velocityX, velocityY -> flings.add(velocityX to velocityY); true }
+        }
+
+        assertEquals(1, flings.size)
+        assertTrue(flings[0].first > 0)
+        assertEquals(0, flings[0].second)
+        assertFalse(scrolls.keys.any { it > SCROLL_RELEASE_MS })
+    }
+
+    @Test
+    fun `WHEN the magnetic cursor moves over a target THEN it slows down`() {
+        val timeline = listOf(TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT))
+
+        val freePositions = replay(timeline, frameRateHz = 60, durationMs = 800)
+        val magneticPositions = replay(timeline, frameRateHz = 60, durationMs = 800) {
+            hitTargets = HitTargets().apply { syncHitTargets("1000,500,1400,580", 0, 0) }
+        }
+
+        assertTrue(magneticPositions.getValue(800).x < freePositions.getValue(800).x)
+    }
+
+    @Test
+    fun `WHEN the magnetic cursor is released near a target THEN it snaps onto it`() {
+        val timeline = listOf(
+            TimedKey(0, KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_LEFT),
+            TimedKey(300, KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_LEFT)
+        )
+        val releasedAtX = replay(timeline, frameRateHz = 60, durationMs = 300).getValue(300).x
+        // To the left of where the cursor stops, so it doesn't pass over it.
+        val targetRight = (releasedAtX - 10).toInt()
+
+        val positions = replay(timeline, frameRateHz = 60, durationMs = 400) {
+            hitTargets = HitTargets().apply { syncHitTargets("${targetRight - 100},500,$targetRight,580", 0, 0) }
+        }
+
+        assertEquals(targetRight - 4f, positions.getValue(400).x, TOLERANCE_PX)
+        assertEquals(SCREEN_HEIGHT / 2, positions.getValue(400).y, 0f)
+    }
+
+    /**
+     * Replays the timeline on a new [CursorModel], delivering key events before the frames at the
+     * same time, as Android does, and updating the position on each frame that isn't dropped.
+     *
+     * @param scrollsByFrameMs filled with the sum of the scroll requests on each frame, by the frame's time.
+     * @return the position of the cursor at each frame, by the frame's time, in whole ms.
+     */
+    private fun replay(
+        timeline: List<TimedKey>,
+        frameRateHz: Int,
+        durationMs: Long,
+        droppedFrames: IntRange = IntRange.EMPTY,
+        scrollsByFrameMs: MutableMap<Long, PointF> = mutableMapOf(),
+        configure: CursorModel.() -> Unit = {}
+    ): Map<Long, PointF> {
+        val cursorModel = CursorModelHelper.createEnabledCursorModel(PointF(SCREEN_WIDTH, SCREEN_HEIGHT)).apply(configure)
+        var frameMs = 0L
+        // The requested PointF is reused by the model: copy it.
+        cursorModel.scrollRequests.subscribe {
+            scrollsByFrameMs.getOrPut(frameMs) { PointF() }.offset(it.x, it.y)
+        }
+        val startNanos = TimeUnit.SECONDS.toNanos(1)
+        val position = PointF()
+        cursorModel.mutatePosition(position, startNanos) // Sets the initial position.
+
+        val positions = mutableMapOf<Long, PointF>()
+        var keyIndex = 0
+        var frame = 0
+        while (true) {
+            // Frame times are whole ns: round them so 100ms is exactly 3, 5 and 6 frames at 30, 50 and 60 Hz.
+            val frameTimeNanos = Math.round(frame * TimeUnit.SECONDS.toNanos(1) / frameRateHz.toDouble())
+            if (frameTimeNanos > TimeUnit.MILLISECONDS.toNanos(durationMs)) break
+
+            while (keyIndex < timeline.size && TimeUnit.MILLISECONDS.toNanos(timeline[keyIndex].timeMs) <= frameTimeNanos) {
+                val key = timeline[keyIndex++]
+                val eventTimeMs = TimeUnit.NANOSECONDS.toMillis(startNanos) + key.timeMs
+                val event = KeyEvent(eventTimeMs, eventTimeMs, key.action, key.keyCode, 0)
+                assertTrue(cursorModel.handleKeyEvent(event).wasKeyEventConsumed)
+            }
+
+            if (frame !in droppedFrames) {
+                frameMs = TimeUnit.NANOSECONDS.toMillis(frameTimeNanos + 500_000)
+                cursorModel.mutatePosition(position, startNanos + frameTimeNanos)
+                positions[frameMs] = PointF(position.x, position.y)
+            }
+            ++frame
+        }
+        return positions
+    }
+}
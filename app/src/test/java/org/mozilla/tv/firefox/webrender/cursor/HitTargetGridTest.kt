@@ -0,0 +1,50 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.webrender.cursor
+
+import android.graphics.PointF
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class HitTargetGridTest {
+
+    private val nearestPoint = PointF()
+
+    @Test
+    fun `WHEN the targets are spread over a small page THEN there is a cell for each 128px square`() {
+        val grid = HitTargetGrid(intArrayOf(0, 0, 10, 10, 1270, 630, 1279, 639))
+
+        assertEquals(10 * 5, grid.cellCount)
+    }
+
+    @Test
+    fun `WHEN the targets are spread over a long narrow page THEN there are at most MAX_CELL_COUNT cells`() {
+        val grid = HitTargetGrid(intArrayOf(0, -2_000_000_000, 10, -1_999_999_990, 0, 2_000_000_000, 10, 2_000_000_010))
+
+        assertTrue("${grid.cellCount} cells", grid.cellCount in 1..MAX_CELL_COUNT)
+        assertTrue(grid.findNearestPoint(5f, 2_000_000_005f, 0f, nearestPoint))
+        assertFalse(grid.findNearestPoint(5f, 0f, 1000f, nearestPoint))
+    }
+
+    @Test
+    fun `WHEN the targets are spread over a page in both directions THEN there are at most MAX_CELL_COUNT cells`() {
+        val grid = HitTargetGrid(intArrayOf(Int.MIN_VALUE, Int.MIN_VALUE, Int.MIN_VALUE + 10, Int.MIN_VALUE + 10,
+                Int.MAX_VALUE - 10, Int.MAX_VALUE - 10, Int.MAX_VALUE, Int.MAX_VALUE))
+
+        assertTrue("${grid.cellCount} cells", grid.cellCount in 1..MAX_CELL_COUNT)
+    }
+
+    @Test
+    fun `WHEN a target is inside out THEN the sizes are invalid`() {
+        assertTrue(HitTargetGrid.hasValidSizes(intArrayOf(100, 100, 100, 200)))
+        assertFalse(HitTargetGrid.hasValidSizes(intArrayOf(0, 0, 10, 10, 300, 100, 100, 200)))
+        assertFalse(HitTargetGrid.hasValidSizes(intArrayOf(100, 200, 300, 100)))
+    }
+}
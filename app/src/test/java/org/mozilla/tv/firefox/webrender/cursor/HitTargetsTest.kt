@@ -0,0 +1,131 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.webrender.cursor
+
+import android.graphics.PointF
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mozilla.tv.firefox.helpers.AllocationHelper
+import org.mozilla.tv.firefox.helpers.FirefoxRobolectricTestRunner
+import java.util.Random
+
+private const val REPEAT_COUNT = 1000
+
+@RunWith(FirefoxRobolectricTestRunner::class)
+class HitTargetsTest {
+
+    private lateinit var hitTargets: HitTargets
+    private lateinit var nearestPoint: PointF
+
+    @Before
+    fun setup() {
+        hitTargets = HitTargets()
+        nearestPoint = PointF()
+    }
+
+    @Test
+    fun `WHEN the point is over a target THEN the target is found at the point`() {
+        hitTargets.syncHitTargets("100,100,300,200", 0, 0)
+
+        assertTrue(hitTargets.findNearestPoint(150f, 150f, 0f, nearestPoint))
+        assertEquals(PointF(150f, 150f), nearestPoint)
+    }
+
+    @Test
+    fun `WHEN targets are near the point THEN the point inside the nearest one is found`() {
+        hitTargets.syncHitTargets("100,100,300,200,0,260,1000,300", 0, 0)
+
+        assertTrue(hitTargets.findNearestPoint(200f, 240f, 50f, nearestPoint))
+        assertEquals(PointF(200f, 264f), nearestPoint) // Inside the edge of the second target.
+        assertFalse(hitTargets.findNearestPoint(200f, 240f, 10f, nearestPoint))
+    }
+
+    @Test
+    fun `WHEN the page is scrolled THEN the targets move on screen`() {
+        hitTargets.syncHitTargets("100,1100,300,1200", 0, 1000)
+        assertTrue(hitTargets.findNearestPoint(150f, 150f, 0f, nearestPoint))
+
+        hitTargets.syncScrollPosition(0, 500)
+
+        assertFalse(hitTargets.findNearestPoint(150f, 150f, 0f, nearestPoint))
+        assertTrue(hitTargets.findNearestPoint(150f, 650f, 0f, nearestPoint))
+        assertEquals(PointF(150f, 650f), nearestPoint)
+    }
+
+    @Test
+    fun `WHEN the targets are invalid THEN they are ignored`() {
+        hitTargets.syncHitTargets("100,100,300,200", 0, 0)
+
+        hitTargets.syncHitTargets("100,100,300", 0, 0)
+        hitTargets.syncHitTargets("100,100,300,abc", 0, 0)
+        hitTargets.syncHitTargets("100,100,300,NaN", 0, 0)
+        hitTargets.syncHitTargets("100,100,300,Infinity", 0, 0)
+        hitTargets.syncHitTargets("300,100,100,200", 0, 0)
+
+        assertTrue(hitTargets.findNearestPoint(150f, 150f, 0f, nearestPoint))
+    }
+
+    @Test
+    fun `WHEN there are many targets on a long page THEN the nearest one is found`() {
+        val random = Random(1)
+        val rects = IntArray(400) { if (it % 2 == 0) random.nextInt(1920) else random.nextInt(20000) }
+        for (i in rects.indices step 4) {
+            rects[i + 2] += rects[i] + random.nextInt(300)
+            rects[i + 3] += rects[i + 1] + random.nextInt(100)
+        }
+        hitTargets.syncHitTargets(rects.joinToString(","), 0, 0)
+
+        repeat(REPEAT_COUNT) {
+            val x = random.nextInt(1920).toFloat()
+            val y = random.nextInt(20000).toFloat()
+
+            val isFound = hitTargets.findNearestPoint(x, y, 200f, nearestPoint)
+
+            val expectedPoints = findNearestPointsByBruteForce(rects, x, y, 200f)
+            assertEquals(expectedPoints.isNotEmpty(), isFound)
+            if (isFound) assertTrue("$nearestPoint for ($x, $y) not in $expectedPoints", nearestPoint in expectedPoints)
+        }
+    }
+
+    @Test
+    fun `WHEN finding the nearest target THEN it does not allocate`() {
+        hitTargets.syncHitTargets((0 until 100).joinToString(",") { "${it * 20},${it * 50},${it * 20 + 15},${it * 50 + 30}" }, 0, 0)
+        // Loads classes.
+        hitTargets.findNearestPoint(0f, 0f, 24f, nearestPoint)
+
+        val allocatedBytes = AllocationHelper.measureAllocatedBytes {
+            for (i in 0 until REPEAT_COUNT) {
+                hitTargets.findNearestPoint(i.toFloat(), i * 2.5f, 24f, nearestPoint)
+            }
+        }
+
+        // Less than a byte per lookup: any object allocated per lookup would take at least 16.
+        assertTrue("$allocatedBytes bytes allocated for $REPEAT_COUNT lookups", allocatedBytes < REPEAT_COUNT)
+    }
+
+    /**
+     * Returns the point inside each of the targets nearest to the given point, 4px inside their
+     * edges, or none if no target is within [maxDistance]: targets can be equally near.
+     */
+    private fun findNearestPointsByBruteForce(rects: IntArray, x: Float, y: Float, maxDistance: Float): List<PointF> {
+        val distances = (rects.indices step 4).associateWith { i ->
+            val dx = maxOf(rects[i] - x, x - rects[i + 2], 0f)
+            val dy = maxOf(rects[i + 1] - y, y - rects[i + 3], 0f)
+            dx * dx + dy * dy
+        }
+        val nearestDistance = distances.values.min()!!
+        if (nearestDistance > maxDistance * maxDistance) return emptyList()
+
+        return distances.filterValues { it == nearestDistance }.keys.map { i ->
+            val insetX = minOf(4f, (rects[i + 2] - rects[i]) / 2f)
+            val insetY = minOf(4f, (rects[i + 3] - rects[i + 1]) / 2f)
+            PointF(x.coerceIn(rects[i] + insetX, rects[i + 2] - insetX), y.coerceIn(rects[i + 1] + insetY, rects[i + 3] - insetY))
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.benchmark;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.net.Uri;
+
+import org.mozilla.tv.firefox.ext.StringKt;
+import org.mozilla.tv.firefox.ext.UriKt;
+import org.mozilla.tv.firefox.utils.FormattedDomain;
+import org.mozilla.tv.firefox.utils.publicsuffix.BenchmarkPublicSuffixLoader;
+import org.mozilla.tv.firefox.utils.publicsuffix.PublicSuffix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks for domain formatting, which runs for every tile render and page load. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DomainBenchmark {
+
+    /** The public suffix list is preloaded so this is never used: it only needs to be non-null. */
+    private final Context context = new ContextWrapper(null);
+
+    private String[] pageUrls;
+    private URI[] pageURIs;
+    private String[] hosts;
+
+    @Setup
+    public void setUp() throws IOException, URISyntaxException {
+        BenchmarkPublicSuffixLoader.load();
+
+        pageUrls = UrlCorpus.pageUrls();
+        hosts = UrlCorpus.hosts();
+
+        pageURIs = new URI[pageUrls.length];
+        for (int i = 0; i < pageUrls.length; i++) {
+            pageURIs[i] = new URI(pageUrls[i]);
+        }
+    }
+
+    /** As called for custom pinned tile titles. */
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void formattedDomainFormat(Blackhole blackhole) {
+        for (final URI uri : pageURIs) {
+            blackhole.consume(FormattedDomain.format(context, uri, false, 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void publicSuffixGetPublicSuffix(Blackhole blackhole) {
+        for (final String host : hosts) {
+            blackhole.consume(PublicSuffix.getPublicSuffix(context, host, 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void beautifyUrl(Blackhole blackhole) {
+        for (final String url : pageUrls) {
+            blackhole.consume(StringKt.beautifyUrl(url));
+        }
+    }
+
+    /** Includes Uri.parse: Uri caches its parsed parts so reusing instances would only measure the cache. */
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void uriTruncatedHost(Blackhole blackhole) {
+        for (final String url : pageUrls) {
+            blackhole.consume(UriKt.truncatedHost(Uri.parse(url)));
+        }
+    }
+}
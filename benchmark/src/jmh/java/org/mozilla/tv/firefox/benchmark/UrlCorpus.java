@@ -0,0 +1,116 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Realistic inputs for the URL and domain benchmarks, derived from a list of popular hosts
+ * (hosts.txt). Each corpus has {@link #SIZE} entries and is generated with a fixed seed so runs
+ * are comparable.
+ */
+final class UrlCorpus {
+
+    /** The number of entries in each corpus: benchmarks use it for @OperationsPerInvocation. */
+    static final int SIZE = 4096;
+
+    private static final long SEED = 2647;
+
+    private static final String[] SUBDOMAINS = { "", "", "www.", "www.", "m.", "mobile.", "en.", "news.", "blog.m." };
+    private static final String[] PATHS = { "", "/", "/index.html", "/watch", "/news/world-54321", "/r/all/comments/abc123/title_of_post",
+            "/search", "/a/b/c/d/e.html", "/tv/", "/wiki/Main_Page" };
+    private static final String[] QUERIES = { "", "", "?q=fire+tv", "?v=dQw4w9WgXcQ&t=42s", "?ref=home&utm_source=tv&utm_medium=app" };
+    private static final String[] FRAGMENTS = { "", "", "", "#top", "#section-2" };
+    private static final String[] SEARCH_WORDS = { "how", "to", "cook", "rice", "weather", "today", "movie", "times",
+            "near", "me", "best", "tv", "shows", "2019", "news", "score", "recipe", "youtube", "music", "video" };
+
+    private UrlCorpus() {}
+
+    /** Full page URLs, e.g. "https://m.bbc.co.uk/news/world-54321?ref=home#top". */
+    static String[] pageUrls() {
+        final Random random = new Random(SEED);
+        final List<String> hosts = readHosts();
+        final String[] urls = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            urls[i] = pageUrl(random, hosts);
+        }
+        return urls;
+    }
+
+    /** Hosts as found in page URLs, e.g. "m.bbc.co.uk". */
+    static String[] hosts() {
+        final Random random = new Random(SEED);
+        final List<String> hosts = readHosts();
+        final String[] result = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            result[i] = pick(random, SUBDOMAINS) + hosts.get(random.nextInt(hosts.size()));
+        }
+        return result;
+    }
+
+    /**
+     * What users commit in the URL bar: bare hosts, hosts with paths, full URLs, IP addresses and
+     * search queries, with the occasional stray whitespace.
+     */
+    static String[] urlBarInputs() {
+        final Random random = new Random(SEED);
+        final List<String> hosts = readHosts();
+        final String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            final String host = hosts.get(random.nextInt(hosts.size()));
+            final String input;
+            switch (random.nextInt(6)) {
+                case 0: input = host; break;
+                case 1: input = "www." + host + pick(random, PATHS); break;
+                case 2: input = pageUrl(random, hosts); break;
+                case 3: input = "192.168." + random.nextInt(256) + "." + random.nextInt(256) + (random.nextBoolean() ? ":8080" : ""); break;
+                default: input = searchQuery(random); break;
+            }
+            inputs[i] = random.nextInt(10) == 0 ? " " + input + " " : input;
+        }
+        return inputs;
+    }
+
+    private static String pageUrl(Random random, List<String> hosts) {
+        return (random.nextInt(4) == 0 ? "http://" : "https://") +
+                pick(random, SUBDOMAINS) + hosts.get(random.nextInt(hosts.size())) +
+                pick(random, PATHS) + pick(random, QUERIES) + pick(random, FRAGMENTS);
+    }
+
+    private static String searchQuery(Random random) {
+        final StringBuilder query = new StringBuilder(pick(random, SEARCH_WORDS));
+        final int wordCount = 1 + random.nextInt(4);
+        for (int i = 0; i < wordCount; i++) {
+            query.append(' ').append(pick(random, SEARCH_WORDS));
+        }
+        return query.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<String> readHosts() {
+        final List<String> hosts = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                UrlCorpus.class.getResourceAsStream("hosts.txt"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    hosts.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("hosts.txt is bundled with the benchmarks", e);
+        }
+        return hosts;
+    }
+}
@@ -0,0 +1,58 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.benchmark;
+
+import org.mozilla.tv.firefox.utils.UrlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks for the {@link UrlUtils} methods that run whenever the user commits URL bar input. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UrlUtilsBenchmark {
+
+    private String[] urlBarInputs;
+    private String[] hosts;
+
+    @Setup
+    public void setUp() {
+        urlBarInputs = UrlCorpus.urlBarInputs();
+        hosts = UrlCorpus.hosts();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void normalize(Blackhole blackhole) {
+        for (final String input : urlBarInputs) {
+            blackhole.consume(UrlUtils.normalize(input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void isUrl(Blackhole blackhole) {
+        for (final String input : urlBarInputs) {
+            blackhole.consume(UrlUtils.isUrl(input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UrlCorpus.SIZE)
+    public void stripCommonSubdomains(Blackhole blackhole) {
+        for (final String host : hosts) {
+            blackhole.consume(UrlUtils.stripCommonSubdomains(host));
+        }
+    }
+}
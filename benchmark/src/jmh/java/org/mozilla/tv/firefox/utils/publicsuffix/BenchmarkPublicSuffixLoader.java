@@ -0,0 +1,33 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.tv.firefox.utils.publicsuffix;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads the public suffix list for the benchmarks, which have no assets. This lives in the
+ * publicsuffix package to access its package-private API.
+ */
+public final class BenchmarkPublicSuffixLoader {
+
+    /** Set by the benchmark build to the output of the app's compilePublicSuffixList task. */
+    private static final String TRIE_PATH_PROPERTY = "publicsuffixlist.trie";
+
+    private BenchmarkPublicSuffixLoader() {}
+
+    public static void load() throws IOException {
+        final String path = System.getProperty(TRIE_PATH_PROPERTY);
+        if (path == null) {
+            throw new IllegalStateException("Expected the " + TRIE_PATH_PROPERTY + " system property to be set");
+        }
+
+        try (final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            PublicSuffixPatterns.loadTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.gradle.tasks
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.TaskAction
+import java.io.DataOutputStream
+import java.io.File
+import java.util.TreeMap
+
+/**
+ * Compiles a public suffix list into the binary trie read by the app's `PublicSuffixTrie`, so the
+ * app never has to parse the text list at runtime.
+ *
+ * The input has one rule per line: "co.uk" for exact rules, "*.kawasaki.jp" for wildcard rules
+ * and "!city.kawasaki.jp" for exception rules. Rules are stored by their reversed characters and
+ * nodes are numbered breadth-first, so the children of every node are contiguous and sorted.
+ *
+ * The output format, big-endian, is:
+ * - int: [MAGIC]
+ * - int: the node count, n
+ * - int[n + 1]: the index of the first child of each node; the children of node i are [first[i], first[i + 1])
+ * - char[n]: the character on the edge leading into each node (unused for the root, node 0)
+ * - byte[n]: the flags of each node
+ *
+ * If you change this format, update `PublicSuffixTrie` too.
+ */
+open class CompilePublicSuffixList : DefaultTask() {
+    @get:InputFile
+    lateinit var source: File
+
+    @get:OutputFile
+    lateinit var output: File
+
+    init {
+        group = "Build"
+        description = "Compiles the public suffix list into a binary trie asset"
+    }
+
+    @TaskAction
+    fun compile() {
+        val root = Node()
+        source.readLines().filter { it.isNotBlank() }.forEach { line ->
+            when {
+                line.startsWith("*.") -> root.add(line.substring(2), FLAG_WILDCARD)
+                line.startsWith("!") -> root.add(line.substring(1), FLAG_EXCEPTION)
+                else -> root.add(line, FLAG_EXACT)
+            }
+        }
+
+        val nodes = mutableListOf(root)
+        val chars = mutableListOf('\u0000')
+        val firstChild = mutableListOf<Int>()
+        var i = 0
+        while (i < nodes.size) {
+            firstChild.add(nodes.size)
+            nodes[i].children.forEach { (char, child) ->
+                chars.add(char)
+                nodes.add(child)
+            }
+            i += 1
+        }
+        firstChild.add(nodes.size)
+
+        output.parentFile.mkdirs()
+        DataOutputStream(output.outputStream().buffered()).use { out ->
+            out.writeInt(MAGIC)
+            out.writeInt(nodes.size)
+            firstChild.forEach { out.writeInt(it) }
+            chars.forEach { out.writeChar(it.toInt()) }
+            nodes.forEach { out.writeByte(it.flags) }
+        }
+    }
+
+    private class Node {
+        val children = TreeMap<Char, Node>()
+        var flags = 0
+
+        fun add(rule: String, flag: Int) {
+            // Reverse by char rather than with String.reversed, which keeps surrogate pairs in order:
+            // the app scans hosts one char at a time.
+            var node = this
+            for (i in rule.indices.reversed()) {
+                node = node.children.getOrPut(rule[i]) { Node() }
+            }
+            node.flags = node.flags or flag
+        }
+    }
+
+    companion object {
+        const val MAGIC = 0x50534c31 // "PSL1"
+
+        const val FLAG_EXACT = 1
+        const val FLAG_WILDCARD = 1 shl 1
+        const val FLAG_EXCEPTION = 1 shl 2
+    }
+}
@@ -0,0 +1,95 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.gradle.tasks
+
+import groovy.json.JsonParserType
+import groovy.json.JsonSlurper
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.TaskAction
+import java.io.File
+
+private const val PACKAGE = "org.mozilla.tv.firefox.channels.pinnedtile"
+private const val OUTPUT_FILE_NAME = "BundledPinnedTiles.kt"
+
+private val REQUIRED_KEYS = listOf("id", "url", "title", "img")
+
+/**
+ * Compiles the bundled pinned tiles into Kotlin source, so the app never has to read or parse
+ * their JSON at runtime.
+ *
+ * The input is a JSON array of tiles, each with an "id", "url", "title" and "img", the file name of
+ * the tile's image in the bundled assets. Comments are allowed. The output declares them, in order,
+ * as `BUNDLED_PINNED_TILES: List<BundledPinnedTile>`.
+ *
+ * If you change the tile fields, update `BundledPinnedTile` too.
+ */
+open class GenerateBundledPinnedTiles : DefaultTask() {
+    @get:InputFile
+    lateinit var source: File
+
+    @get:OutputDirectory
+    lateinit var outputDir: File
+
+    init {
+        group = "Build"
+        description = "Compiles the bundled pinned tiles into Kotlin source"
+    }
+
+    @TaskAction
+    fun generate() {
+        val tiles = JsonSlurper().setType(JsonParserType.LAX).parse(source) as? List<*>
+                ?: throw GradleException("$source must contain a JSON array of tiles")
+
+        val ids = mutableSetOf<String>()
+        val constructorCalls = tiles.mapIndexed { i, tile ->
+            val values = REQUIRED_KEYS.map { key ->
+                val value = (tile as? Map<*, *>)?.get(key) as? String
+                value?.takeIf { it.isNotBlank() } ?: throw GradleException("Tile $i in $source is missing \"$key\"")
+            }
+            val (id, url, title, img) = values
+            if (!ids.add(id)) {
+                throw GradleException("Tile id \"$id\" is duplicated in $source")
+            }
+
+            """
+            |        BundledPinnedTile(
+            |                url = ${url.toKotlinLiteral()},
+            |                title = ${title.toKotlinLiteral()},
+            |                imagePath = ${img.toKotlinLiteral()},
+            |                id = ${id.toKotlinLiteral()}
+            |        )""".trimMargin()
+        }
+
+        val packageDir = File(outputDir, PACKAGE.replace('.', '/'))
+        packageDir.mkdirs()
+        File(packageDir, OUTPUT_FILE_NAME).writeText("""
+            |// Generated from ${source.name} by ${GenerateBundledPinnedTiles::class.java.simpleName}: do not edit.
+            |
+            |package $PACKAGE
+            |
+            |/** The bundled pinned tiles, in display order, before any were removed by the user. */
+            |internal val BUNDLED_PINNED_TILES: List<BundledPinnedTile> = listOf(
+            |${constructorCalls.joinToString(",\n")}
+            |)
+            |""".trimMargin())
+    }
+}
+
+private fun String.toKotlinLiteral(): String {
+    val escaped = StringBuilder(length + 2).append('"')
+    forEach { char ->
+        when (char) {
+            '\\' -> escaped.append("\\\\")
+            '"' -> escaped.append("\\\"")
+            '$' -> escaped.append("\\$")
+            '\n' -> escaped.append("\\n")
+            else -> escaped.append(char)
+        }
+    }
+    return escaped.append('"').toString()
+}